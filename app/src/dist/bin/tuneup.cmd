@@ -0,0 +1,7 @@
+@echo off
+rem Starts TuneupV2 from the distribution folder, with the class data sharing archive when it exists
+set APP_HOME=%~dp0..
+set CDS=
+if exist "%APP_HOME%\tuneup.jsa" set CDS=-XX:SharedArchiveFile="%APP_HOME%\tuneup.jsa" -Xshare:auto
+if "%JAVA%"=="" set JAVA=java
+"%JAVA%" %CDS% %JAVA_OPTS% -jar "%APP_HOME%\TuneupV2.jar" %*
@@ -0,0 +1,164 @@
+package com.tuneupv2;
+
+import com.tuneupv2.library.MetadataExtractor;
+import com.tuneupv2.library.Metrics;
+import com.tuneupv2.library.Song;
+import com.tuneupv2.library.TrackMetadata;
+import javafx.application.Platform;
+import javafx.scene.image.Image;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Loads album art lazily in the background, decoded at the size it is shown at, and keeps
+// a bounded LRU of decoded covers keyed by content hash so tracks of one album share an entry
+public class AlbumArtCache {
+    private static final int DEFAULT_CAPACITY = 256;
+    private static final Logger LOG = Logger.getLogger(AlbumArtCache.class.getName());
+
+    private static Image defaultArt;
+
+    private final MetadataExtractor extractor;
+    private final int capacity;
+    private final Map<Key, CompletableFuture<Image>> cache;
+    private final Metrics.Counter hits = Metrics.counter("art.cache.hits");
+    private final Metrics.Counter misses = Metrics.counter("art.cache.misses");
+    private final ExecutorService loader = Executors.newFixedThreadPool(2, runnable -> {
+        Thread thread = new Thread(runnable, "album-art-loader");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    private static class Key {
+        private final long hash;
+        private final int size;
+
+        private Key(long hash, int size) {
+            this.hash = hash;
+            this.size = size;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return hash == key.hash && size == key.size;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(hash, size);
+        }
+    }
+
+    public AlbumArtCache(MetadataExtractor extractor) {
+        this(extractor, DEFAULT_CAPACITY);
+    }
+
+    public AlbumArtCache(MetadataExtractor extractor, int capacity) {
+        this.extractor = extractor;
+        this.capacity = capacity;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, CompletableFuture<Image>> eldest) {
+                return size() > AlbumArtCache.this.capacity;
+            }
+        };
+        Metrics.gauge("art.cache.entries", this::size);
+        Metrics.gauge("art.cache.decodedKB", () -> decodedBytes() >> 10);
+        Metrics.gauge("art.cache.hitPercent", () -> {
+            long lookups = hits.get() + misses.get();
+            return lookups == 0 ? 0 : hits.get() * 100 / lookups;
+        });
+    }
+
+    // Shared default cover for all songs without artwork, decoded in the background so it never
+    // delays the first frame
+    public static synchronized Image defaultArt() {
+        if (defaultArt == null) {
+            defaultArt = new Image(AlbumArtCache.class.getResource("/albumArt2.png").toString(), true);
+        }
+        return defaultArt;
+    }
+
+    // Delivers the cover of the song, decoded to fit size x size, on the FX thread
+    public void load(Song song, int size, Consumer<Image> callback) {
+        if (song.getArtworkHash() == TrackMetadata.NO_ARTWORK) {
+            callback.accept(defaultArt());
+            return;
+        }
+        Key key = new Key(song.getArtworkHash(), size);
+        CompletableFuture<Image> image;
+        synchronized (cache) {
+            image = cache.get(key);
+            if (image == null) {
+                misses.increment();
+                image = CompletableFuture.supplyAsync(() -> decode(song.getUrl(), size), loader);
+                cache.put(key, image);
+            } else {
+                hits.increment();
+            }
+        }
+        if (image.isDone()) {
+            callback.accept(image.join());
+        } else {
+            image.thenAccept(loaded -> Platform.runLater(() -> callback.accept(loaded)));
+        }
+    }
+
+    // Decodes the cover in the background without waiting for it, e.g. for the next track
+    public void prefetch(Song song, int size) {
+        if (song.getArtworkHash() != TrackMetadata.NO_ARTWORK) {
+            load(song, size, image -> {
+            });
+        }
+    }
+
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    // Memory held by the decoded covers, at four bytes per pixel
+    private long decodedBytes() {
+        long bytes = 0;
+        synchronized (cache) {
+            for (CompletableFuture<Image> image : cache.values()) {
+                Image loaded = image.getNow(null);
+                if (loaded != null && loaded != defaultArt) {
+                    bytes += (long) loaded.getWidth() * (long) loaded.getHeight() * 4;
+                }
+            }
+        }
+        return bytes;
+    }
+
+    private Image decode(String url, int size) {
+        try {
+            byte[] imageData = extractor.readArtwork(new File(URI.create(url)));
+            if (imageData != null) {
+                Image image = new Image(new ByteArrayInputStream(imageData), size, size, true, true);
+                if (!image.isError()) {
+                    return image;
+                }
+            }
+        } catch (Exception e) {
+            LOG.log(Level.FINE, "Could not read the cover of " + url, e);
+        }
+        return defaultArt();
+    }
+}
@@ -0,0 +1,683 @@
+package com.tuneupv2;
+
+import com.tuneupv2.library.AlbumIndex;
+import com.tuneupv2.library.DuplicateFinder;
+import com.tuneupv2.library.LibraryIndex;
+import com.tuneupv2.library.LibraryScanner;
+import com.tuneupv2.library.LibraryWatcher;
+import com.tuneupv2.library.LoudnessAnalyzer;
+import com.tuneupv2.library.Metrics;
+import com.tuneupv2.library.MusicLibrary;
+import com.tuneupv2.library.PlaybackQueue;
+import com.tuneupv2.library.PlaylistFile;
+import com.tuneupv2.library.SearchIndex;
+import com.tuneupv2.library.SessionSnapshot;
+import com.tuneupv2.library.Song;
+import com.tuneupv2.library.SortKeys;
+import com.tuneupv2.library.WaveformCache;
+import javafx.application.Platform;
+import javafx.beans.property.*;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
+import javafx.collections.transformation.SortedList;
+import javafx.scene.control.Label;
+import javafx.scene.control.Slider;
+import javafx.scene.image.Image;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+public class Controller {
+    private static final Logger LOG = Logger.getLogger(Controller.class.getName());
+
+    private ObservableList<Song> songs = FXCollections.observableArrayList();
+    private FilteredList<Song> visibleSongs = new FilteredList<>(songs);
+    // Table order, the play queue keeps indexing the unsorted songs list
+    private SortedList<Song> sortedSongs = new SortedList<>(visibleSongs);
+    private final Metrics.Histogram sortMillis = Metrics.histogram("table.sortMillis");
+    private String searchQuery = "";
+    private StringProperty searchStatus = new SimpleStringProperty("");
+    // Play order over indices of songs, the list itself is never reordered for playback
+    private PlaybackQueue queue = new PlaybackQueue();
+    private Label currentlyPlayingLabel;
+    private ObjectProperty<Image> albumArt = new SimpleObjectProperty<>(AlbumArtCache.defaultArt());
+    private BooleanProperty isPlayingProperty = new SimpleBooleanProperty(false);
+    private SimpleDoubleProperty volume = new SimpleDoubleProperty(1); // Default volume 100%
+    private StringProperty currentlyPlaying = new SimpleStringProperty("No song playing");
+    private DoubleProperty currentTime = new SimpleDoubleProperty();
+    private DoubleProperty totalDuration = new SimpleDoubleProperty();
+    private BooleanProperty isMutedProperty = new SimpleBooleanProperty(false);
+    private final PlayerManager playerManager = new PlayerManager(currentTime, totalDuration, volume, isMutedProperty, this::next);
+    private StringProperty scanStatus = new SimpleStringProperty("Songs detected: 0");
+    // Symlinked folders are only followed when started with -Dtuneup.followSymlinks=true
+    private final MusicLibrary library = new MusicLibrary(LibraryIndex.defaultLocation(), Boolean.getBoolean("tuneup.followSymlinks"));
+    private final LibraryIndex libraryIndex = library.getIndex();
+    private final LibraryScanner scanner = library.getScanner();
+    private final LibraryWatcher watcher = library.getWatcher();
+    private final SearchIndex searchIndex = library.getSearchIndex();
+    // Built when the browser is first shown, then kept up to date with every change to the songs
+    private final AlbumIndex albumIndex = library.getAlbumIndex();
+    private boolean albumIndexBuilt;
+    private final ReadOnlyIntegerWrapper albumIndexVersion = new ReadOnlyIntegerWrapper();
+    private final DuplicateFinder duplicateFinder = library.getDuplicateFinder();
+    private final LoudnessAnalyzer loudnessAnalyzer = library.getLoudnessAnalyzer();
+    private final WaveformCache waveformCache = library.getWaveformCache();
+    private ObjectProperty<WaveformCache.Peaks> waveform = new SimpleObjectProperty<>();
+    private BooleanProperty watchEnabled = new SimpleBooleanProperty(false);
+    private File libraryRoot;
+    private boolean scanning;
+    private final AlbumArtCache albumArtCache = new AlbumArtCache(scanner.getExtractor());
+    private final FxStallMonitor stallMonitor = new FxStallMonitor();
+    private final Path sessionFile = SessionSnapshot.defaultLocation();
+    public static final int ALBUM_ART_SIZE = 60;
+
+    public Controller(Label currentlyPlayingLabel) {
+        this.currentlyPlayingLabel = currentlyPlayingLabel;
+        watchEnabled.addListener((obs, wasEnabled, isEnabled) -> updateWatcher());
+        Metrics.gauge("library.songs", songs::size);
+        stallMonitor.start();
+    }
+
+    public ObservableList<Song> getSongs() {
+        return songs;
+    }
+
+    // Songs shown in the table, i.e. the songs matching the current search in the table's sort order
+    public ObservableList<Song> getVisibleSongs() {
+        return sortedSongs;
+    }
+
+    // Sorts the table by the comparators of SortKeys, null restores the library order. The sort is
+    // stable, so songs that compare equal keep their previous order.
+    public void sortSongs(Comparator<Song> order) {
+        long start = System.nanoTime();
+        sortedSongs.setComparator(order);
+        sortMillis.record((System.nanoTime() - start) / 1_000_000);
+    }
+
+    public void search(String query) {
+        searchQuery = query == null ? "" : query;
+        searchIndex.search(searchQuery, result -> Platform.runLater(() -> {
+            if (result == null) {
+                visibleSongs.setPredicate(null);
+                searchStatus.set("");
+            } else {
+                visibleSongs.setPredicate(result);
+                searchStatus.set(String.format("%d matches in %.2f ms", result.size(), searchIndex.getLastQueryNanos() / 1e6));
+            }
+        }));
+    }
+
+    public StringProperty searchStatusProperty() {
+        return searchStatus;
+    }
+
+    // Keeps the search index in step with the song list and refreshes an active search
+    private void indexSongs(List<Song> added, List<Song> removed) {
+        if (!removed.isEmpty()) {
+            searchIndex.removeAll(removed);
+        }
+        searchIndex.addAll(added);
+        if (albumIndexBuilt) {
+            albumIndex.removeAll(removed);
+            albumIndex.addAll(added);
+            albumIndexVersion.set(albumIndexVersion.get() + 1);
+        }
+        if (!searchQuery.isBlank()) {
+            search(searchQuery);
+        }
+    }
+
+    public void loadSongs(File folder) {
+        libraryRoot = folder;
+        clearSongs();
+        scanner.scan(folder, songListListener());
+    }
+
+    // Replaces the songs with the entries of an M3U, M3U8 or PLS playlist in playlist order. The table
+    // fills while the playlist is read; entries already in the library index are not parsed again.
+    public void importPlaylist(File playlist) {
+        libraryRoot = null; // The entries can come from anywhere, so nothing is watched
+        clearSongs();
+        scanner.importPlaylist(playlist, songListListener());
+    }
+
+    // Writes the songs in play order to an M3U, M3U8 or PLS file, chosen by the file extension
+    public void exportPlaylist(File file) {
+        // Collect the order here, the file is written in the background
+        List<Song> ordered = new ArrayList<>(songs.size());
+        queue.forEachInOrder(index -> ordered.add(songs.get(index)));
+        CompletableFuture.runAsync(() -> {
+            try (PlaylistFile.Writer writer = new PlaylistFile.Writer(file.toPath())) {
+                for (Song song : ordered) {
+                    writer.add(song);
+                }
+                LOG.info("Exported " + writer.getCount() + " songs to " + file);
+            } catch (IOException | RuntimeException e) {
+                LOG.log(Level.WARNING, "Could not export the queue to " + file, e);
+            }
+        });
+    }
+
+    private void clearSongs() {
+        watcher.stop();
+        duplicateFinder.cancel();
+        loudnessAnalyzer.cancel();
+        scanning = true;
+        songs.clear();
+        searchIndex.clear();
+        albumIndex.clear();
+        albumIndexVersion.set(albumIndexVersion.get() + 1);
+        queue.reset(0, -1);
+    }
+
+    // Adds the songs of a folder scan or playlist import to the table as the batches arrive
+    private LibraryScanner.Listener songListListener() {
+        return new LibraryScanner.Listener() {
+            @Override
+            public void onBatch(LibraryScanner.Scan scan, List<Song> batch) {
+                Platform.runLater(() -> {
+                    if (scan.isCancelled()) {
+                        return;
+                    }
+                    boolean firstBatch = songs.isEmpty();
+                    songs.addAll(batch);
+                    queue.setSize(songs.size());
+                    indexSongs(batch, List.of());
+                    // Start playing as soon as the first songs are available
+                    if (firstBatch) {
+                        playSong(songs.get(queue.next()));
+                    }
+                });
+            }
+
+            @Override
+            public void onProgress(LibraryScanner.Scan scan, int scanned, int total) {
+                Platform.runLater(() -> {
+                    if (!scan.isCancelled()) {
+                        scanStatus.set("Scanning... " + scanned + "/" + total);
+                    }
+                });
+            }
+
+            @Override
+            public void onFinished(LibraryScanner.Scan scan, int scanned, boolean cancelled) {
+                Platform.runLater(() -> {
+                    if (!cancelled) {
+                        scanning = false;
+                        scanStatus.set("Songs detected: " + songs.size() + " | " + formatScanTimes(scan));
+                        updateWatcher();
+                        findDuplicates(null);
+                        analyzeLoudness();
+                    }
+                });
+            }
+        };
+    }
+
+    // Fills the table, play queue, volume and mute from the last session without touching the music
+    // folder, and cues the current song paused where it was. Returns false if there is no session.
+    public boolean restoreSession() {
+        long start = System.nanoTime();
+        SessionSnapshot snapshot;
+        try {
+            snapshot = SessionSnapshot.load(sessionFile);
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Could not read the last session from " + sessionFile, e);
+            return false;
+        }
+        if (snapshot == null) {
+            return false;
+        }
+        libraryRoot = snapshot.getRoot();
+        songs.setAll(snapshot.getSongs());
+        searchIndex.addAll(songs);
+        // Scanned songs get their sort keys on the scanner threads, restored ones in the background here
+        CompletableFuture.runAsync(() -> snapshot.getSongs().forEach(SortKeys::prepare));
+        queue = snapshot.getQueue();
+        volume.set(snapshot.getVolume());
+        isMutedProperty.set(snapshot.isMuted());
+        int current = queue.getCurrent();
+        if (current >= 0 && current < songs.size()) {
+            cueSong(songs.get(current), snapshot.getPosition());
+        }
+        scanStatus.set("Songs detected: " + songs.size() + " (last session)");
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        Metrics.gauge("startup.restoreMillis", () -> millis);
+        LOG.info("Restored " + songs.size() + " songs from the last session in " + millis + " ms");
+        return true;
+    }
+
+    // Checks the restored songs against the music folder in the background with a warm scan and
+    // applies only the differences, so the table and queue stay as they are if nothing changed
+    public void verifyLibrary() {
+        if (libraryRoot == null || scanning) {
+            return;
+        }
+        if (!libraryRoot.isDirectory()) {
+            // E.g. an unmounted drive, keep the songs of the last session
+            LOG.warning("Music folder " + libraryRoot + " is not available, showing the last session");
+            return;
+        }
+        scanning = true;
+        List<Song> scanned = new ArrayList<>();
+        scanner.scan(libraryRoot, new LibraryScanner.Listener() {
+            @Override
+            public void onBatch(LibraryScanner.Scan scan, List<Song> batch) {
+                scanned.addAll(batch); // Only touched on the scanner's coordinator thread
+            }
+
+            @Override
+            public void onProgress(LibraryScanner.Scan scan, int scanned, int total) {
+            }
+
+            @Override
+            public void onFinished(LibraryScanner.Scan scan, int scannedCount, boolean cancelled) {
+                Platform.runLater(() -> {
+                    if (cancelled) {
+                        return;
+                    }
+                    scanning = false;
+                    reconcile(scanned);
+                    scanStatus.set("Songs detected: " + songs.size() + " | " + formatScanTimes(scan));
+                    updateWatcher();
+                    findDuplicates(null);
+                    analyzeLoudness();
+                });
+            }
+        });
+    }
+
+    // Artists, albums and tracks of the songs for the browser
+    public AlbumIndex getAlbumIndex() {
+        if (!albumIndexBuilt) {
+            albumIndex.addAll(songs);
+            albumIndexBuilt = true;
+        }
+        return albumIndex;
+    }
+
+    // Changes whenever the album index changed, so the browser knows when to refresh its open groups
+    public ReadOnlyIntegerProperty albumIndexVersionProperty() {
+        return albumIndexVersion.getReadOnlyProperty();
+    }
+
+    public void loadAlbumArt(Song song, int size, Consumer<Image> callback) {
+        albumArtCache.load(song, size, callback);
+    }
+
+    // Hashes new and changed files in the background and gives the songs their content based ids.
+    // With a report file the duplicates are also written there.
+    private void findDuplicates(File reportFile) {
+        duplicateFinder.find(new ArrayList<>(songs), report -> {
+            if (reportFile != null) {
+                try {
+                    report.write(reportFile.toPath());
+                    LOG.info("Duplicate report written to " + reportFile);
+                } catch (IOException e) {
+                    LOG.log(Level.WARNING, "Could not write the duplicate report to " + reportFile, e);
+                }
+            }
+            Platform.runLater(() -> {
+                report.applyTrackIds();
+                if (reportFile != null && !scanning) {
+                    scanStatus.set("Songs detected: " + songs.size() + " | " + report.getDuplicateCount() + " duplicates");
+                }
+            });
+        });
+    }
+
+    // Measures the songs that have no ReplayGain tag in the background; a new gain is used from the
+    // next time the song is played
+    private void analyzeLoudness() {
+        loudnessAnalyzer.analyze(new ArrayList<>(songs), report -> Platform.runLater(report::applyGains));
+    }
+
+    public void exportDuplicates(File reportFile) {
+        findDuplicates(reportFile);
+    }
+
+    private void reconcile(List<Song> scanned) {
+        Map<String, Song> known = new HashMap<>();
+        for (Song song : songs) {
+            known.put(song.getUrl(), song);
+        }
+        List<Song> changed = new ArrayList<>();
+        for (Song song : scanned) {
+            Song previous = known.remove(song.getUrl());
+            if (previous == null || !sameMetadata(previous, song)) {
+                changed.add(song);
+            }
+        }
+        List<String> removedUrls = new ArrayList<>(known.keySet());
+        if (!changed.isEmpty() || !removedUrls.isEmpty()) {
+            LOG.info("Library changed since the last session: " + changed.size() + " new or changed, "
+                    + removedUrls.size() + " removed");
+            applyChanges(changed, removedUrls);
+        }
+    }
+
+    private static boolean sameMetadata(Song a, Song b) {
+        return Objects.equals(a.getSongName(), b.getSongName())
+                && Objects.equals(a.getArtistName(), b.getArtistName())
+                && Objects.equals(a.getAlbum(), b.getAlbum())
+                && a.getDuration() == b.getDuration()
+                && a.getArtworkHash() == b.getArtworkHash();
+    }
+
+    private void saveSession() {
+        try {
+            new SessionSnapshot(libraryRoot, new ArrayList<>(songs), queue, currentTime.get(), volume.get(),
+                    isMutedProperty.get()).save(sessionFile);
+        } catch (IOException | RuntimeException e) {
+            LOG.log(Level.WARNING, "Could not save the session to " + sessionFile, e);
+        }
+    }
+
+    // Watch mode keeps the loaded folder in sync without rescanning it
+    public BooleanProperty watchEnabledProperty() {
+        return watchEnabled;
+    }
+
+    private void updateWatcher() {
+        if (!watchEnabled.get() || libraryRoot == null || scanning) {
+            watcher.stop();
+            return;
+        }
+        if (watcher.isRunning()) {
+            return;
+        }
+        try {
+            watcher.start(libraryRoot.toPath(), (changed, removedUrls) ->
+                    Platform.runLater(() -> applyChanges(changed, removedUrls)));
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Could not watch " + libraryRoot, e);
+        }
+    }
+
+    // Applies only the reported deltas to the song list, in a single pass over it
+    private void applyChanges(List<Song> changed, List<String> removedUrls) {
+        Map<String, Song> changedByUrl = new HashMap<>();
+        for (Song song : changed) {
+            changedByUrl.put(song.getUrl(), song);
+        }
+        List<Song> removed = new ArrayList<>();
+        if (!removedUrls.isEmpty()) {
+            songs.removeIf(song -> {
+                boolean isRemoved = removedUrls.stream().anyMatch(url -> LibraryWatcher.isRemoved(song.getUrl(), url));
+                if (isRemoved) {
+                    removed.add(song);
+                }
+                return isRemoved;
+            });
+        }
+        for (int i = 0; i < songs.size() && !changedByUrl.isEmpty(); i++) {
+            Song updated = changedByUrl.remove(songs.get(i).getUrl());
+            if (updated != null) {
+                removed.add(songs.set(i, updated));
+            }
+        }
+        songs.addAll(changedByUrl.values());
+        if (removedUrls.isEmpty()) {
+            queue.setSize(songs.size());
+        } else {
+            // Indices moved, start the play order over from the current song
+            queue.reset(songs.size(), songs.indexOf(playerManager.getCurrentSong()));
+        }
+        indexSongs(changed, removed);
+        scanStatus.set("Songs detected: " + songs.size());
+    }
+
+    // Cold and warm scan times of the folder side by side, e.g. "cold 12.4 s / warm 0.3 s"
+    private String formatScanTimes(LibraryScanner.Scan scan) {
+        if (!scan.getRoot().isDirectory()) {
+            // Playlist imports have no scan times of their own
+            return formatMillis(scan.getElapsedMillis()) + " (" + scan.getParsedCount() + " parsed, "
+                    + scan.getCachedCount() + " indexed, " + scan.getFailedCount() + " failed)";
+        }
+        LibraryIndex.ScanTimes times = libraryIndex.getScanTimes(scan.getRoot());
+        return "cold " + formatMillis(times.getColdMillis()) + " / warm " + formatMillis(times.getWarmMillis())
+                + " (" + scan.getParsedCount() + " parsed, " + scan.getCachedCount() + " indexed)";
+    }
+
+    private static String formatMillis(long millis) {
+        if (millis < 0) {
+            return "-";
+        }
+        return String.format("%.1f s", millis / 1000.0);
+    }
+
+    public void cancelScan() {
+        if (scanner.cancel()) {
+            // A partially scanned folder is not watched
+            scanning = false;
+            libraryRoot = null;
+            scanStatus.set("Scan cancelled, songs detected: " + songs.size());
+        }
+    }
+
+    public StringProperty scanStatusProperty() {
+        return scanStatus;
+    }
+
+    public void playSong(Song song) {
+        // Songs the player cannot open are skipped, going at most once around the queue
+        for (int skipped = 0; !playerManager.play(song); skipped++) {
+            if (skipped >= songs.size()) {
+                playerManager.disposeAll();
+                isPlayingProperty.set(false);
+                return;
+            }
+            song = songs.get(queue.next());
+        }
+        updateNowPlayingInfo(song);
+        isPlayingProperty.set(true);
+
+        // Concatenate song name and artist name
+        currentlyPlaying.set(song.getSongName() + "\nby " + song.getArtistName());
+
+        // Prepare the next song so the switch at the end of this one is gapless
+        playerManager.preload(upcomingSong());
+    }
+
+    public ReadOnlyDoubleProperty lastGapMillisProperty() {
+        return playerManager.lastGapMillisProperty();
+    }
+
+    public PlayerManager getPlayerManager() {
+        return playerManager;
+    }
+
+    // Current value of every metric, one line each, for the diagnostics overlay
+    public List<String> getMetrics() {
+        return Metrics.snapshot();
+    }
+
+    public void exportMetrics(File file) {
+        try {
+            Metrics.export(file.toPath());
+            LOG.info("Metrics written to " + file);
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Could not write metrics to " + file, e);
+        }
+    }
+
+    // Releases players, background threads and the folder watcher when the application exits.
+    // Started with -Dtuneup.metricsFile=<file> the final metrics are written to that file.
+    public void shutdown() {
+        PositionReporter positionReporter = playerManager.getPositionReporter();
+        LOG.info(String.format("Position updates: %.0f published per minute from %.0f samples per minute",
+                positionReporter.getPublishedPerMinute(), positionReporter.getSamplesPerMinute()));
+        String metricsFile = System.getProperty("tuneup.metricsFile");
+        if (metricsFile != null) {
+            exportMetrics(new File(metricsFile));
+        }
+        stallMonitor.stop();
+        // Players and the library are released even if the snapshot could not be written
+        try {
+            saveSession();
+        } finally {
+            playerManager.disposeAll();
+            library.close();
+        }
+    }
+
+    // Shows the song as the current one, paused at the given position
+    private void cueSong(Song song, double seconds) {
+        if (!playerManager.cue(song, seconds)) {
+            return;
+        }
+        currentTime.set(seconds);
+        updateNowPlayingInfo(song);
+        currentlyPlaying.set(song.getSongName() + "\nby " + song.getArtistName());
+        playerManager.preload(upcomingSong());
+    }
+
+    private void updateNowPlayingInfo(Song song) {
+        currentlyPlayingLabel.setText("Now playing: " + song.getSongName() + "by " + song.getArtistName());
+        LOG.info("Now playing: " + song.getSongName() + " by " + song.getArtistName());
+        // The waveform is read from the cache or generated in the background, none until then
+        waveform.set(null);
+        waveformCache.request(new File(URI.create(song.getUrl())), peaks -> Platform.runLater(() -> {
+            if (song == playerManager.getCurrentSong()) {
+                waveform.set(peaks);
+            }
+        }));
+        // Album art is decoded in the background at the size it is shown at
+        albumArtCache.load(song, ALBUM_ART_SIZE, image -> {
+            if (song == playerManager.getCurrentSong()) {
+                albumArt.set(image);
+            }
+        });
+        Song upcoming = upcomingSong();
+        if (upcoming != null) {
+            albumArtCache.prefetch(upcoming, ALBUM_ART_SIZE);
+        }
+    }
+
+    public void play() {
+        if (playerManager.hasPlayer()) {
+            playerManager.resume();
+            isPlayingProperty.set(true);
+        }
+    }
+
+    public void pause() {
+        if (playerManager.hasPlayer()) {
+            playerManager.pause();
+            isPlayingProperty.set(false);
+        }
+    }
+
+    public void next() {
+        if (!songs.isEmpty()) {
+            playSong(songs.get(queue.next()));
+        }
+    }
+
+    public void previous() {
+        if (!songs.isEmpty()) {
+            playSong(songs.get(queue.previous()));
+        }
+    }
+
+    // Starts a new random play order without touching the song list shown in the table
+    public void shuffle() {
+        if (!songs.isEmpty()) {
+            queue.shuffle();
+            playSong(songs.get(queue.next()));
+        }
+    }
+
+    // Plays the chosen song right away
+    public void playNow(Song song) {
+        int index = songs.indexOf(song);
+        if (index >= 0) {
+            queue.select(index);
+            playSong(song);
+        }
+    }
+
+    // Plays the song after the current one
+    public void playNext(Song song) {
+        int index = songs.indexOf(song);
+        if (index >= 0) {
+            queue.playNext(index);
+            playerManager.preload(upcomingSong());
+        }
+    }
+
+    // Adds the song to the end of the queued songs
+    public void enqueue(Song song) {
+        int index = songs.indexOf(song);
+        if (index >= 0) {
+            queue.enqueue(index);
+            playerManager.preload(upcomingSong());
+        }
+    }
+
+    private Song upcomingSong() {
+        int index = queue.peekNext();
+        return index >= 0 && index < songs.size() ? songs.get(index) : null;
+    }
+
+    public StringProperty currentlyPlayingProperty() {
+        return currentlyPlaying;
+    }
+
+    public Slider getVolumeSlider() {
+        Slider volumeSlider = new Slider(0, 1, 0.5);
+        // The player's volume is bound to volumeProperty by the PlayerManager
+        volumeSlider.valueProperty().bindBidirectional(volumeProperty());
+        return volumeSlider;
+    }
+
+    public BooleanProperty isPlayingProperty() {
+        return isPlayingProperty;
+    }
+
+    public DoubleProperty currentTimeProperty() {
+        return currentTime;
+    }
+
+    public DoubleProperty totalDurationProperty() {
+        return totalDuration;
+    }
+
+    public void seek(double seconds) {
+        playerManager.seek(seconds);
+    }
+
+    public ObjectProperty<WaveformCache.Peaks> waveformProperty() {
+        return waveform;
+    }
+
+    public ObjectProperty<Image> albumArtProperty() {
+        return albumArt;
+    }
+
+    public DoubleProperty volumeProperty() {
+        return volume;
+    }
+
+    public BooleanProperty isMutedProperty() {
+        return isMutedProperty;
+    }
+
+    public void toggleMute() {
+        isMutedProperty.set(!isMutedProperty.get());
+    }
+}
@@ -0,0 +1,49 @@
+package com.tuneupv2;
+
+import com.tuneupv2.library.Metrics;
+import javafx.application.Platform;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Posts a probe to the FX thread every 100 ms and measures how long it waits to run. A wait of 50 ms
+// or more means pulses and input were blocked for that long and is recorded as a stall.
+public class FxStallMonitor {
+    private static final long PROBE_INTERVAL_MS = 100;
+    private static final long STALL_MS = 50;
+
+    private final Metrics.Counter stalls = Metrics.counter("fx.stalls");
+    private final Metrics.Histogram stallMillis = Metrics.histogram("fx.stallMillis");
+    private final AtomicBoolean probePending = new AtomicBoolean();
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "fx-stall-monitor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public void start() {
+        timer.scheduleWithFixedDelay(this::probe, PROBE_INTERVAL_MS, PROBE_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        timer.shutdownNow();
+    }
+
+    private void probe() {
+        // While a probe is still waiting the FX thread is blocked, its delay is recorded once it runs
+        if (!probePending.compareAndSet(false, true)) {
+            return;
+        }
+        long posted = System.nanoTime();
+        Platform.runLater(() -> {
+            probePending.set(false);
+            long delayMillis = (System.nanoTime() - posted) / 1_000_000;
+            if (delayMillis >= STALL_MS) {
+                stalls.increment();
+                stallMillis.record(delayMillis);
+            }
+        });
+    }
+}
@@ -0,0 +1,385 @@
+package com.tuneupv2;
+
+import com.tuneupv2.library.LibraryIndex;
+import com.tuneupv2.library.LibraryScanner;
+import com.tuneupv2.library.Metrics;
+import com.tuneupv2.library.PlaylistFile;
+import com.tuneupv2.library.Song;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+// Batch mode for machines without a display: "--headless [options] <folder|playlist>..." scans the roots
+// one after another on all cores, streams every song to stdout or a file as JSON Lines or CSV while the
+// scan runs, and prints throughput to stderr at the end. The same code path as the window's scan, so a
+// run with --cold is a repeatable end to end measurement of it.
+public final class HeadlessScan {
+    static final int EXIT_OK = 0;
+    static final int EXIT_FAILED = 1;
+    static final int EXIT_USAGE = 2;
+
+    private static final String USAGE = String.join(System.lineSeparator(),
+            "Usage: tuneup --headless [options] <folder|playlist>...",
+            "  --format jsonl|csv   Output format, jsonl by default",
+            "  --output <file>      Write the songs to a file instead of stdout",
+            "  --index <file>       Library index to read and update, " + LibraryIndex.defaultLocation() + " by default",
+            "  --cold               Parse every file, without reading or writing a library index",
+            "  --threads <n>        Scanner threads, one per core by default",
+            "  --metrics <file>     Write the metrics snapshot to a file at the end",
+            "Exits with 1 if a root or a file could not be read or the scan was cut short, 2 for invalid arguments.");
+
+    private static final String[] CSV_COLUMNS = {"path", "id", "artist", "title", "album", "duration", "artworkHash", "trackGain"};
+
+    private final List<File> roots = new ArrayList<>();
+    private boolean csv;
+    private Path output;
+    private Path indexFile = LibraryIndex.defaultLocation();
+    private boolean cold;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private Path metricsFile;
+
+    private Writer out;
+    private IOException writeError;
+    private final StringBuilder line = new StringBuilder(256);
+
+    private HeadlessScan() {
+    }
+
+    public static boolean isRequested(String[] args) {
+        return Arrays.asList(args).contains("--headless");
+    }
+
+    // Runs the scan described by the arguments and returns the process exit code
+    public static int run(String[] args) {
+        if (Arrays.asList(args).contains("--help")) {
+            System.out.println(USAGE);
+            return EXIT_OK;
+        }
+        HeadlessScan scan = new HeadlessScan();
+        String error = scan.parse(args);
+        if (error != null) {
+            System.err.println(error);
+            System.err.println(USAGE);
+            return EXIT_USAGE;
+        }
+        return scan.run();
+    }
+
+    // Returns an error message, or null if the arguments are valid
+    private String parse(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("--headless")) {
+                continue;
+            }
+            if (arg.equals("--cold")) {
+                cold = true;
+                continue;
+            }
+            if (!arg.startsWith("--")) {
+                roots.add(new File(arg).getAbsoluteFile());
+                continue;
+            }
+            if (i + 1 == args.length) {
+                return "Missing value for " + arg;
+            }
+            String value = args[++i];
+            switch (arg) {
+                case "--format":
+                    if (!value.equals("jsonl") && !value.equals("csv")) {
+                        return "Unknown format " + value;
+                    }
+                    csv = value.equals("csv");
+                    break;
+                case "--output":
+                    output = Paths.get(value).toAbsolutePath();
+                    break;
+                case "--index":
+                    indexFile = Paths.get(value).toAbsolutePath();
+                    break;
+                case "--threads":
+                    try {
+                        threads = Integer.parseInt(value);
+                    } catch (NumberFormatException e) {
+                        threads = 0;
+                    }
+                    if (threads < 1) {
+                        return "Invalid thread count " + value;
+                    }
+                    break;
+                case "--metrics":
+                    metricsFile = Paths.get(value).toAbsolutePath();
+                    break;
+                default:
+                    return "Unknown option " + arg;
+            }
+        }
+        return roots.isEmpty() ? "No folder or playlist given" : null;
+    }
+
+    private int run() {
+        // A cold run keeps its index in memory only, so it neither reuses nor disturbs the real one
+        LibraryIndex index = cold ? LibraryIndex.inMemory() : new LibraryIndex(indexFile);
+        index.load();
+        LibraryScanner scanner = new LibraryScanner(index, false, threads);
+        scanner.setSaveIndex(false);
+        int failedRoots = 0;
+        boolean incomplete = false;
+        int scanned = 0;
+        int parsed = 0;
+        int cached = 0;
+        int failed = 0;
+        long start = System.nanoTime();
+        try (Writer writer = open()) {
+            out = writer;
+            if (csv) {
+                writeCsvHeader();
+            }
+            for (File root : roots) {
+                if (!root.isDirectory() && !(root.isFile() && PlaylistFile.isPlaylist(root.toPath()))) {
+                    System.err.println("Not a folder or playlist: " + root);
+                    failedRoots++;
+                    continue;
+                }
+                int[] count = new int[1];
+                LibraryScanner.Scan scan = scanRoot(scanner, root, count);
+                if (scan == null) {
+                    System.err.println("Interrupted while scanning " + root);
+                    incomplete = true;
+                    break;
+                }
+                scanned += count[0];
+                parsed += scan.getParsedCount();
+                cached += scan.getCachedCount();
+                failed += scan.getFailedCount();
+                System.err.println(summary(root.toString(), count[0], scan.getParsedCount(), scan.getCachedCount(),
+                        scan.getFailedCount(), scan.getElapsedMillis()));
+                if (writeError != null) {
+                    break;
+                }
+                if (scan.isCancelled()) {
+                    System.err.println("Scan of " + root + " was cancelled");
+                    incomplete = true;
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            if (writeError == null) {
+                writeError = e;
+            }
+        } finally {
+            scanner.shutdown();
+        }
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        index.save();
+        if (roots.size() > 1) {
+            System.err.println(summary(roots.size() + " roots", scanned, parsed, cached, failed, millis));
+        }
+        System.err.println("Tag parse times (us): " + Metrics.histogram("tag.parseMicros"));
+        if (metricsFile != null) {
+            try {
+                Metrics.export(metricsFile);
+            } catch (IOException e) {
+                System.err.println("Could not write the metrics to " + metricsFile + ": " + e.getMessage());
+            }
+        }
+        if (writeError != null) {
+            System.err.println("Could not write the output: " + writeError.getMessage());
+            return EXIT_FAILED;
+        }
+        return failedRoots > 0 || failed > 0 || incomplete ? EXIT_FAILED : EXIT_OK;
+    }
+
+    // Scans one root and waits for it, returning null if the wait was interrupted
+    private LibraryScanner.Scan scanRoot(LibraryScanner scanner, File root, int[] count) {
+        CountDownLatch done = new CountDownLatch(1);
+        LibraryScanner.Listener listener = new LibraryScanner.Listener() {
+            @Override
+            public void onBatch(LibraryScanner.Scan scan, List<Song> batch) {
+                write(scan, batch);
+            }
+
+            @Override
+            public void onProgress(LibraryScanner.Scan scan, int scanned, int total) {
+            }
+
+            @Override
+            public void onFinished(LibraryScanner.Scan scan, int scanned, boolean cancelled) {
+                count[0] = scanned;
+                done.countDown();
+            }
+        };
+        LibraryScanner.Scan scan = PlaylistFile.isPlaylist(root.toPath())
+                ? scanner.importPlaylist(root, listener)
+                : scanner.scan(root, listener);
+        try {
+            done.await();
+            return scan;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            scan.cancel();
+            return null;
+        }
+    }
+
+    // Called on the scanner's coordinator thread; a failed write stops the scan instead of throwing there
+    private void write(LibraryScanner.Scan scan, List<Song> batch) {
+        if (writeError != null) {
+            return;
+        }
+        try {
+            for (Song song : batch) {
+                if (csv) {
+                    writeCsv(song);
+                } else {
+                    writeJson(song);
+                }
+            }
+            out.flush();
+        } catch (IOException e) {
+            writeError = e;
+            scan.cancel();
+        }
+    }
+
+    private Writer open() throws IOException {
+        if (output == null) {
+            // UTF-8 whatever the platform encoding, and buffered without System.out's locking on every call
+            return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(FileDescriptor.out), StandardCharsets.UTF_8), 1 << 16);
+        }
+        return Files.newBufferedWriter(output, StandardCharsets.UTF_8);
+    }
+
+    private void writeJson(Song song) throws IOException {
+        line.setLength(0);
+        line.append("{\"path\":");
+        appendJson(path(song));
+        line.append(",\"id\":");
+        appendJson(song.getId());
+        line.append(",\"artist\":");
+        appendJson(song.getArtistName());
+        line.append(",\"title\":");
+        appendJson(song.getSongName());
+        line.append(",\"album\":");
+        appendJson(song.getAlbum());
+        line.append(",\"duration\":").append(song.getDuration());
+        line.append(",\"artworkHash\":");
+        appendJson(song.getArtworkHash() == 0 ? null : String.format("%016x", song.getArtworkHash()));
+        line.append(",\"trackGain\":");
+        line.append(Float.isNaN(song.getTrackGain()) ? "null" : Float.toString(song.getTrackGain()));
+        line.append('}').append('\n');
+        out.append(line);
+    }
+
+    private void appendJson(String value) {
+        if (value == null) {
+            line.append("null");
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    line.append("\\\"");
+                    break;
+                case '\\':
+                    line.append("\\\\");
+                    break;
+                case '\n':
+                    line.append("\\n");
+                    break;
+                case '\r':
+                    line.append("\\r");
+                    break;
+                case '\t':
+                    line.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        line.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        line.append(c);
+                    }
+            }
+        }
+        line.append('"');
+    }
+
+    private void writeCsvHeader() throws IOException {
+        out.write(String.join(",", CSV_COLUMNS));
+        out.write('\n');
+    }
+
+    private void writeCsv(Song song) throws IOException {
+        line.setLength(0);
+        appendCsv(path(song));
+        line.append(',');
+        appendCsv(song.getId());
+        line.append(',');
+        appendCsv(song.getArtistName());
+        line.append(',');
+        appendCsv(song.getSongName());
+        line.append(',');
+        appendCsv(song.getAlbum());
+        line.append(',').append(song.getDuration()).append(',');
+        if (song.getArtworkHash() != 0) {
+            line.append(String.format("%016x", song.getArtworkHash()));
+        }
+        line.append(',');
+        if (!Float.isNaN(song.getTrackGain())) {
+            line.append(song.getTrackGain());
+        }
+        line.append('\n');
+        out.append(line);
+    }
+
+    // Quoted only when needed, with quotes doubled as in RFC 4180
+    private void appendCsv(String value) {
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            line.append(value);
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                line.append('"');
+            }
+            line.append(c);
+        }
+        line.append('"');
+    }
+
+    private static String path(Song song) {
+        return new File(URI.create(song.getUrl())).getPath();
+    }
+
+    private static String summary(String what, int files, int parsed, int cached, int failed, long millis) {
+        double seconds = Math.max(1, millis) / 1000.0;
+        return String.format("%s: %d files in %.2f s, %.0f files/s (%d parsed, %d from the index, %d failed)",
+                what, files, millis / 1000.0, files / seconds, parsed, cached, failed);
+    }
+}
@@ -0,0 +1,9 @@
+package com.tuneupv2;
+
+// Entry point of the distribution, which runs from the class path. Started directly, a main class
+// that extends Application is refused there with "JavaFX runtime components are missing".
+public class Launcher {
+    public static void main(String[] args) {
+        Main.main(args);
+    }
+}
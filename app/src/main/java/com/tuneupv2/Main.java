@@ -0,0 +1,81 @@
+package com.tuneupv2;
+
+import com.tuneupv2.library.Metrics;
+import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.scene.Scene;
+import javafx.scene.control.Label;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.stage.Stage;
+
+import java.lang.management.ManagementFactory;
+import java.util.logging.Logger;
+
+public class Main extends Application {
+    private static final Logger LOG = Logger.getLogger(Main.class.getName());
+
+    private Controller controller;
+
+    @Override
+    public void start(Stage primaryStage) {
+        Label currentlyPlayingLabel = new Label("No song playing");
+
+        controller = new Controller(currentlyPlayingLabel);
+        // The last session fills the table before the first frame, the folder is checked after it
+        boolean restored = controller.restoreSession();
+        View view = new View(controller);
+
+        Scene scene = view.createScene(primaryStage);
+        primaryStage.setTitle("TuneupV2");
+        primaryStage.setScene(scene);
+        primaryStage.show();
+        // Decoded in the background, the window does not wait for its icon
+        primaryStage.getIcons().add(new Image(getClass().getResource("/icon.png").toString(), true));
+
+        scene.addPostLayoutPulseListener(new Runnable() {
+            private boolean reported;
+
+            @Override
+            public void run() {
+                if (reported) {
+                    return;
+                }
+                reported = true;
+                reportFirstFrame(restored);
+                // Not removed while the scene is still running its pulse listeners
+                Platform.runLater(() -> {
+                    scene.removePostLayoutPulseListener(this);
+                    // Training runs for the class data sharing archive and startup benchmarks end here
+                    if (Boolean.getBoolean("tuneup.exitAfterFirstFrame")) {
+                        Platform.exit();
+                    } else {
+                        controller.verifyLibrary();
+                    }
+                });
+            }
+        });
+    }
+
+    // Time from JVM start until the first frame of the window is laid out and can take input
+    private static void reportFirstFrame(boolean restored) {
+        long millis = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+        Metrics.gauge("startup.firstFrameMillis", () -> millis);
+        LOG.info("First interactive frame after " + millis + " ms" + (restored ? ", last session restored" : ""));
+    }
+
+    @Override
+    public void stop() {
+        if (controller != null) {
+            controller.shutdown();
+        }
+    }
+
+    public static void main(String[] args) {
+        // Batch scans run without starting the JavaFX toolkit, so they work on machines without a display
+        if (HeadlessScan.isRequested(args)) {
+            System.exit(HeadlessScan.run(args));
+        }
+        launch(args);
+    }
+}
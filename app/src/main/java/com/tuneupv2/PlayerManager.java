@@ -0,0 +1,246 @@
+package com.tuneupv2;
+
+import com.tuneupv2.library.LoudnessAnalyzer;
+import com.tuneupv2.library.Metrics;
+import com.tuneupv2.library.Song;
+import javafx.beans.binding.Bindings;
+import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.DoubleProperty;
+import javafx.beans.property.ReadOnlyDoubleProperty;
+import javafx.beans.property.ReadOnlyDoubleWrapper;
+import javafx.scene.media.Media;
+import javafx.scene.media.MediaException;
+import javafx.scene.media.MediaPlayer;
+import javafx.util.Duration;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Owns the MediaPlayer of the current song and the preloaded player of the next one. Every player is
+// disposed as soon as it is no longer needed and all listeners and bindings are removed from it first,
+// so native media handles do not pile up over a long session.
+public class PlayerManager {
+    private static final Logger LOG = Logger.getLogger(PlayerManager.class.getName());
+
+    private final DoubleProperty totalDuration;
+    private final DoubleProperty volume;
+    private final BooleanProperty muted;
+    private final Runnable onEndOfMedia;
+
+    // Publishes the position of the current player at most once per displayed second
+    private final PositionReporter positionReporter;
+
+    private MediaPlayer current;
+    private Song currentSong;
+    private MediaPlayer next;
+    private Song nextSong;
+    private int livePlayers;
+    private int liveListeners;
+    private long endOfMediaNanos;
+    private long switchNanos;
+    private final Metrics.Histogram firstAudioMillis = Metrics.histogram("playback.firstAudioMillis");
+    private final Metrics.Counter unopenedFiles = Metrics.counter("playback.unopenedFiles");
+    private final ReadOnlyDoubleWrapper lastGapMillis = new ReadOnlyDoubleWrapper(-1);
+
+    public PlayerManager(DoubleProperty currentTime, DoubleProperty totalDuration, DoubleProperty volume,
+                         BooleanProperty muted, Runnable onEndOfMedia) {
+        this.totalDuration = totalDuration;
+        this.volume = volume;
+        this.muted = muted;
+        this.onEndOfMedia = onEndOfMedia;
+        this.positionReporter = new PositionReporter(currentTime, Double.parseDouble(System.getProperty("tuneup.positionHz", "4")));
+        Metrics.gauge("playback.livePlayers", () -> livePlayers);
+        Metrics.gauge("position.publishedPerMinute", () -> Math.round(positionReporter.getPublishedPerMinute()));
+        Metrics.gauge("position.samplesPerMinute", () -> Math.round(positionReporter.getSamplesPerMinute()));
+    }
+
+    // Returns false if the song cannot be opened, in which case the current player is left as it is
+    public boolean play(Song song) {
+        MediaPlayer player;
+        // Use the player that was prepared ahead of time if it is for this song
+        if (song == nextSong && next != null) {
+            player = next;
+            next = null;
+            nextSong = null;
+        } else {
+            player = tryCreate(song);
+            if (player == null) {
+                return false;
+            }
+        }
+        switchNanos = System.nanoTime();
+        release(current);
+        current = player;
+        currentSong = song;
+        attach(current);
+        current.play();
+        return true;
+    }
+
+    // Loads the song paused at the given position, e.g. the current song of the restored session.
+    // Returns false if the song cannot be opened.
+    public boolean cue(Song song, double seconds) {
+        MediaPlayer player = tryCreate(song);
+        if (player == null) {
+            return false;
+        }
+        release(current);
+        release(next);
+        next = null;
+        nextSong = null;
+        current = player;
+        currentSong = song;
+        attach(current);
+        player.setOnReady(() -> {
+            totalDuration.set(player.getTotalDuration().toSeconds());
+            player.seek(Duration.seconds(seconds));
+        });
+        return true;
+    }
+
+    // Creates the player of the upcoming song, so it is opened and buffered before it is needed
+    public void preload(Song upcoming) {
+        if (upcoming == nextSong) {
+            return;
+        }
+        release(next);
+        next = null;
+        nextSong = upcoming;
+        if (upcoming != null) {
+            next = tryCreate(upcoming);
+            if (next == null) {
+                nextSong = null;
+            }
+        }
+    }
+
+    public void resume() {
+        if (current != null) {
+            current.play();
+        }
+    }
+
+    public void pause() {
+        if (current != null) {
+            current.pause();
+        }
+    }
+
+    public void seek(double seconds) {
+        if (current != null) {
+            current.seek(Duration.seconds(seconds));
+        }
+    }
+
+    public boolean hasPlayer() {
+        return current != null;
+    }
+
+    public Song getCurrentSong() {
+        return currentSong;
+    }
+
+    // Stops playback and releases every player
+    public void disposeAll() {
+        release(current);
+        release(next);
+        current = null;
+        currentSong = null;
+        next = null;
+        nextSong = null;
+    }
+
+    // Number of players that were created and not disposed yet, at most two
+    public int getLivePlayers() {
+        return livePlayers;
+    }
+
+    // Number of listeners and bindings currently attached to players
+    public int getLiveListeners() {
+        return liveListeners;
+    }
+
+    public PositionReporter getPositionReporter() {
+        return positionReporter;
+    }
+
+    public ReadOnlyDoubleProperty lastGapMillisProperty() {
+        return lastGapMillis.getReadOnlyProperty();
+    }
+
+    // Returns null for files the media stack cannot open, e.g. formats that can be tagged but not played
+    private MediaPlayer tryCreate(Song song) {
+        try {
+            MediaPlayer player = new MediaPlayer(new Media(song.getUrl()));
+            livePlayers++;
+            return player;
+        } catch (MediaException e) {
+            // Skipping through a folder of such files is normal, so they are counted rather than logged loudly
+            unopenedFiles.increment();
+            LOG.log(Level.FINE, "Could not open {0}: {1}", new Object[]{song.getUrl(), e.getMessage()});
+            return null;
+        }
+    }
+
+    private void attach(MediaPlayer player) {
+        // The track's ReplayGain scales the volume, so songs mastered at different levels play equally loud
+        double gain = LoudnessAnalyzer.volumeFactor(currentSong);
+        player.volumeProperty().bind(Bindings.createDoubleBinding(() -> Math.min(1, volume.get() * gain), volume));
+        player.muteProperty().bind(muted);
+        positionReporter.setPlayer(player);
+        liveListeners += 2;
+
+        player.setOnReady(() -> totalDuration.set(player.getTotalDuration().toSeconds()));
+        if (isKnown(player.getTotalDuration())) {
+            // A preloaded player may already be ready
+            totalDuration.set(player.getTotalDuration().toSeconds());
+        }
+        player.setOnPlaying(() -> {
+            recordFirstAudio(player);
+            recordGap(player);
+        });
+        player.setOnEndOfMedia(() -> {
+            endOfMediaNanos = System.nanoTime();
+            onEndOfMedia.run();
+        });
+    }
+
+    private void release(MediaPlayer player) {
+        if (player == null) {
+            return;
+        }
+        if (player == current) {
+            positionReporter.setPlayer(null);
+            player.volumeProperty().unbind();
+            player.muteProperty().unbind();
+            liveListeners -= 2;
+        }
+        player.setOnReady(null);
+        player.setOnPlaying(null);
+        player.setOnEndOfMedia(null);
+        player.stop();
+        player.dispose();
+        livePlayers--;
+    }
+
+    // Time from switching tracks until the new player starts playing
+    private void recordFirstAudio(MediaPlayer player) {
+        if (switchNanos != 0 && player == current) {
+            firstAudioMillis.record((System.nanoTime() - switchNanos) / 1_000_000);
+            switchNanos = 0;
+        }
+    }
+
+    // Gap between the end of one track and the first audio of the next one
+    private void recordGap(MediaPlayer player) {
+        if (endOfMediaNanos != 0 && player == current) {
+            lastGapMillis.set((System.nanoTime() - endOfMediaNanos) / 1e6);
+            endOfMediaNanos = 0;
+            LOG.fine(String.format("Gap between tracks: %.1f ms", lastGapMillis.get()));
+        }
+    }
+
+    private static boolean isKnown(Duration duration) {
+        return duration != null && !duration.isUnknown() && !duration.isIndefinite();
+    }
+}
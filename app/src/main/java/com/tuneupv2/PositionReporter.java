@@ -0,0 +1,67 @@
+package com.tuneupv2;
+
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.beans.property.DoubleProperty;
+import javafx.scene.media.MediaPlayer;
+import javafx.util.Duration;
+
+// Samples the playback position at a fixed rate and only publishes it when the displayed second
+// changes, instead of pushing every media tick through the bindings on the FX thread
+public class PositionReporter {
+    private final DoubleProperty currentTime;
+    private final Timeline timeline;
+    private MediaPlayer player;
+    private int lastSecond = -1;
+    private long samples;
+    private long published;
+    private final long startNanos = System.nanoTime();
+
+    public PositionReporter(DoubleProperty currentTime, double samplesPerSecond) {
+        this.currentTime = currentTime;
+        this.timeline = new Timeline(new KeyFrame(Duration.seconds(1 / samplesPerSecond), event -> sample()));
+        this.timeline.setCycleCount(Animation.INDEFINITE);
+    }
+
+    public void setPlayer(MediaPlayer player) {
+        this.player = player;
+        lastSecond = -1;
+        if (player == null) {
+            timeline.stop();
+        } else {
+            timeline.play();
+            sample();
+        }
+    }
+
+    private void sample() {
+        if (player == null) {
+            return;
+        }
+        samples++;
+        Duration time = player.getCurrentTime();
+        if (time == null || time.isUnknown()) {
+            return;
+        }
+        double seconds = time.toSeconds();
+        if ((int) seconds != lastSecond) {
+            lastSecond = (int) seconds;
+            published++;
+            currentTime.set(seconds);
+        }
+    }
+
+    // Position updates pushed to the FX bindings per minute, since the reporter was created
+    public double getPublishedPerMinute() {
+        return published / minutesRunning();
+    }
+
+    public double getSamplesPerMinute() {
+        return samples / minutesRunning();
+    }
+
+    private double minutesRunning() {
+        return Math.max(1e-9, (System.nanoTime() - startNanos) / 60e9);
+    }
+}
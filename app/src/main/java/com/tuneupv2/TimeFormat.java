@@ -0,0 +1,32 @@
+package com.tuneupv2;
+
+// mm:ss strings for the time labels and the duration column. Values up to MAX_CACHED seconds are
+// created once and reused, so updating a label every second does not allocate.
+public final class TimeFormat {
+    private static final int MAX_CACHED = 2 * 60 * 60;
+    private static final String[] CACHE = new String[MAX_CACHED];
+
+    private TimeFormat() {
+    }
+
+    public static String mmss(int totalSeconds) {
+        if (totalSeconds < 0) {
+            totalSeconds = 0;
+        }
+        if (totalSeconds >= MAX_CACHED) {
+            return format(totalSeconds);
+        }
+        String text = CACHE[totalSeconds];
+        if (text == null) {
+            text = format(totalSeconds);
+            CACHE[totalSeconds] = text;
+        }
+        return text;
+    }
+
+    private static String format(int totalSeconds) {
+        int minutes = totalSeconds / 60;
+        int seconds = totalSeconds % 60;
+        return String.format("%02d:%02d", minutes, seconds);
+    }
+}
@@ -0,0 +1,717 @@
+package com.tuneupv2;
+
+import com.tuneupv2.library.AlbumIndex;
+import com.tuneupv2.library.Song;
+import com.tuneupv2.library.SortKeys;
+import com.tuneupv2.library.WaveformCache;
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.beans.binding.Bindings;
+import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.SimpleBooleanProperty;
+import javafx.collections.ObservableList;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.*;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.input.MouseButton;
+import javafx.scene.paint.Color;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.Region;
+import javafx.scene.layout.StackPane;
+import javafx.scene.layout.VBox;
+import javafx.stage.DirectoryChooser;
+import javafx.stage.FileChooser;
+import javafx.stage.Stage;
+import javafx.util.Duration;
+import java.io.File;
+import java.util.Comparator;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+public class View {
+    // Toolbar icons are decoded on first use, the dark theme's icons only once it is switched on
+    private static final Map<String, Image> ICONS = new HashMap<>();
+    private static final Color WAVEFORM_PLAYED = Color.web("#3a7bd5");
+    private static final Color WAVEFORM_REMAINING = Color.gray(0.6, 0.7);
+    private static final double WAVEFORM_INSET = 7; // Half the thumb, where the slider's track starts and ends
+
+    private Controller controller;
+    private Label currentlyPlayingLabel = new Label("No song playing");
+    private ImageView albumArtView = new ImageView();
+    private BooleanProperty diagnosticsShown = new SimpleBooleanProperty(false);
+    private BooleanProperty browserShown = new SimpleBooleanProperty(false);
+
+    public View(Controller controller) {
+        this.controller = controller;
+        // Album art of the current song, the shared default image until a song is played
+        albumArtView.imageProperty().bind(controller.albumArtProperty());
+    }
+
+    public Scene createScene(Stage primaryStage) {
+        HBox topControls = createTopControls(primaryStage);
+        TableView<Song> tableView = createTableView();
+        HBox searchBox = createSearchBox();
+        // The diagnostics overlay floats over the top right corner of the table
+        VBox diagnosticsOverlay = createDiagnosticsOverlay(primaryStage);
+        StackPane tablePane = new StackPane(tableView, diagnosticsOverlay);
+        StackPane.setAlignment(diagnosticsOverlay, Pos.TOP_RIGHT);
+        StackPane.setMargin(diagnosticsOverlay, new Insets(30, 10, 10, 10));
+        VBox centerBox = new VBox(searchBox, tablePane);
+        VBox.setVgrow(tablePane, Priority.ALWAYS);
+        VBox bottomControls = createBottomControls();
+
+        BorderPane root = new BorderPane();
+        root.setTop(topControls);
+        root.setCenter(centerBox);
+        root.setLeft(createBrowser());
+        root.setBottom(bottomControls);
+
+        Scene scene = new Scene(root, 650, 600);
+
+        primaryStage.setScene(scene);  // Ensure the scene is set to the primary stage
+
+        return scene;
+    }
+
+    private HBox createTopControls(Stage primaryStage) {
+        DirectoryChooser directoryChooser = new DirectoryChooser();
+        directoryChooser.setTitle("Select the music folder");
+
+        // Theme and folder icons, switched together with the theme
+        ImageView themeIcon = new ImageView(icon("/theme-icon.png"));
+        ImageView folderIcon = new ImageView(icon("/folder-icon.png"));
+
+        Button selectFolderButton = new Button();
+        selectFolderButton.setGraphic(folderIcon);
+
+        ToggleButton toggleButton = new ToggleButton();
+        toggleButton.setGraphic(themeIcon);
+
+        // Add event handler to the button
+        toggleButton.setOnAction(e -> {
+            String styleSheet = getClass().getResource("/style.css").toExternalForm();
+            Scene scene = primaryStage.getScene();
+            if (toggleButton.isSelected()) {
+                scene.getStylesheets().add(styleSheet);
+                themeIcon.setImage(icon("/theme-icon2.png"));
+                folderIcon.setImage(icon("/folder-icon2.png"));
+            } else {
+                scene.getStylesheets().remove(styleSheet);
+                themeIcon.setImage(icon("/theme-icon.png"));
+                folderIcon.setImage(icon("/folder-icon.png"));
+            }
+        });
+
+        Label folderLabel = new Label("Select the music folder");
+        Label songsDetectedLabel = new Label();
+        songsDetectedLabel.setStyle("-fx-font-size: 10px;"); // Set the font size to be smaller
+        // Shows scan progress while loading and the number of detected songs afterwards
+        songsDetectedLabel.textProperty().bind(controller.scanStatusProperty());
+
+        selectFolderButton.setOnAction(e -> {
+            File selectedDirectory = directoryChooser.showDialog(primaryStage);
+            if (selectedDirectory != null) {
+                // Choosing a new folder cancels a scan that is still running
+                controller.loadSongs(selectedDirectory);
+                folderLabel.setText("Currently playing from: " + selectedDirectory.getName());
+            }
+        });
+
+        // Right click on the label cancels the running scan
+        songsDetectedLabel.setOnMouseClicked(e -> {
+            if (e.getButton() == MouseButton.SECONDARY) {
+                controller.cancelScan();
+            }
+        });
+
+        // Playlist import fills the table like a folder scan, export writes the queue in play order
+        FileChooser.ExtensionFilter playlists = new FileChooser.ExtensionFilter("Playlists", "*.m3u8", "*.m3u", "*.pls");
+        MenuItem importItem = new MenuItem("Import playlist...");
+        importItem.setOnAction(e -> {
+            FileChooser fileChooser = new FileChooser();
+            fileChooser.setTitle("Import playlist");
+            fileChooser.getExtensionFilters().add(playlists);
+            File file = fileChooser.showOpenDialog(primaryStage);
+            if (file != null) {
+                controller.importPlaylist(file);
+                folderLabel.setText("Currently playing from: " + file.getName());
+            }
+        });
+        MenuItem exportItem = new MenuItem("Export queue...");
+        exportItem.setOnAction(e -> {
+            FileChooser fileChooser = new FileChooser();
+            fileChooser.setTitle("Export queue");
+            fileChooser.getExtensionFilters().add(playlists);
+            fileChooser.setInitialFileName("queue.m3u8");
+            File file = fileChooser.showSaveDialog(primaryStage);
+            if (file != null) {
+                controller.exportPlaylist(file);
+            }
+        });
+        // Copies of the same audio anywhere in the loaded songs, written to a text file
+        MenuItem duplicatesItem = new MenuItem("Duplicates report...");
+        duplicatesItem.setOnAction(e -> {
+            FileChooser fileChooser = new FileChooser();
+            fileChooser.setTitle("Save duplicates report");
+            fileChooser.setInitialFileName("tuneup-duplicates.txt");
+            File file = fileChooser.showSaveDialog(primaryStage);
+            if (file != null) {
+                controller.exportDuplicates(file);
+            }
+        });
+        MenuButton libraryButton = new MenuButton("Library", null, importItem, exportItem, new SeparatorMenuItem(), duplicatesItem);
+        libraryButton.setStyle("-fx-font-size: 10px;");
+
+        // Optional watch mode, picks up added and removed files without rescanning the folder
+        CheckBox watchCheckBox = new CheckBox("Watch folder");
+        watchCheckBox.setStyle("-fx-font-size: 10px;");
+        watchCheckBox.selectedProperty().bindBidirectional(controller.watchEnabledProperty());
+
+        // Shows scan, tag, album art, playback, FX thread and memory metrics over the table
+        CheckBox diagnosticsCheckBox = new CheckBox("Diagnostics");
+        diagnosticsCheckBox.setStyle("-fx-font-size: 10px;");
+        diagnosticsCheckBox.selectedProperty().bindBidirectional(diagnosticsShown);
+
+        // Artist, album and track tree next to the table
+        CheckBox browseCheckBox = new CheckBox("Browse");
+        browseCheckBox.setStyle("-fx-font-size: 10px;");
+        browseCheckBox.selectedProperty().bindBidirectional(browserShown);
+
+        HBox optionsBox = new HBox(10, libraryButton, browseCheckBox, watchCheckBox, diagnosticsCheckBox);
+        optionsBox.setAlignment(Pos.CENTER);
+
+        VBox folderSelectionBox = new VBox(0, folderLabel, songsDetectedLabel, optionsBox);
+        folderSelectionBox.setStyle("-fx-alignment: center;");
+
+        HBox topControls = new HBox(5, selectFolderButton, folderSelectionBox, toggleButton);
+        topControls.setStyle("-fx-padding: 5; -fx-alignment: center;");
+
+        // Adjust the position of the buttons to be closer to the middle
+        HBox.setMargin(selectFolderButton, new Insets(0, 10, 0, 10)); // Add margin to separate buttons
+        HBox.setMargin(toggleButton, new Insets(0, 10, 0, 20)); // Add margin to separate buttons
+
+        // Add constraints to position selectFolderButton on the left and toggleButton on the right
+        HBox.setHgrow(folderSelectionBox, Priority.ALWAYS);
+        HBox.setHgrow(selectFolderButton, Priority.NEVER);
+        HBox.setHgrow(toggleButton, Priority.NEVER);
+
+        return topControls;
+    }
+
+    private static Image icon(String resource) {
+        return ICONS.computeIfAbsent(resource, name -> new Image(View.class.getResourceAsStream(name)));
+    }
+
+    // Metrics refreshed once a second while the overlay is shown, with a button to save them to a file
+    private VBox createDiagnosticsOverlay(Stage primaryStage) {
+        Label metricsLabel = new Label();
+        metricsLabel.setStyle("-fx-font-family: monospace; -fx-font-size: 10px; -fx-text-fill: white;");
+
+        Timeline refresh = new Timeline(new KeyFrame(Duration.seconds(1),
+                e -> metricsLabel.setText(String.join("\n", controller.getMetrics()))));
+        refresh.setCycleCount(Animation.INDEFINITE);
+
+        Button exportButton = new Button("Export...");
+        exportButton.setStyle("-fx-font-size: 10px;");
+        exportButton.setOnAction(e -> {
+            FileChooser fileChooser = new FileChooser();
+            fileChooser.setTitle("Export metrics");
+            fileChooser.setInitialFileName("tuneup-metrics.txt");
+            File file = fileChooser.showSaveDialog(primaryStage);
+            if (file != null) {
+                controller.exportMetrics(file);
+            }
+        });
+
+        VBox overlay = new VBox(5, metricsLabel, exportButton);
+        overlay.setStyle("-fx-background-color: rgba(0, 0, 0, 0.75); -fx-background-radius: 4; -fx-padding: 8;");
+        overlay.setMaxSize(Region.USE_PREF_SIZE, Region.USE_PREF_SIZE);
+        overlay.visibleProperty().bind(diagnosticsShown);
+        // Only refreshed while visible, so a hidden overlay costs nothing
+        diagnosticsShown.addListener((obs, wasShown, isShown) -> {
+            if (isShown) {
+                metricsLabel.setText(String.join("\n", controller.getMetrics()));
+                refresh.play();
+            } else {
+                refresh.stop();
+            }
+        });
+        return overlay;
+    }
+
+    // Artist, album and track tree read from the controller's album index. Nodes load their children
+    // when first expanded, and only loaded nodes are refreshed when the index changes, so the work
+    // follows the size of the open groups rather than the library.
+    private TreeView<Object> createBrowser() {
+        TreeView<Object> browser = new TreeView<>();
+        browser.setShowRoot(false);
+        browser.setPrefWidth(240);
+        browser.visibleProperty().bind(browserShown);
+        browser.managedProperty().bind(browserShown);
+        browser.setCellFactory(tree -> createBrowserCell());
+        browserShown.addListener((obs, wasShown, isShown) -> {
+            if (isShown && browser.getRoot() == null) {
+                BrowserItem root = new BrowserItem(controller.getAlbumIndex());
+                root.setExpanded(true);
+                browser.setRoot(root);
+            } else if (isShown) {
+                ((BrowserItem) browser.getRoot()).refresh();
+            }
+        });
+        controller.albumIndexVersionProperty().addListener((obs, oldVersion, version) -> {
+            if (browserShown.get() && browser.getRoot() != null) {
+                ((BrowserItem) browser.getRoot()).refresh();
+            }
+        });
+        return browser;
+    }
+
+    // One node of the browser: the album index at the root, then artists, albums and songs
+    private static class BrowserItem extends TreeItem<Object> {
+        private boolean loaded;
+
+        private BrowserItem(Object value) {
+            super(value);
+        }
+
+        @Override
+        public boolean isLeaf() {
+            return getValue() instanceof Song;
+        }
+
+        @Override
+        public ObservableList<TreeItem<Object>> getChildren() {
+            if (!loaded) {
+                loaded = true;
+                load();
+            }
+            return super.getChildren();
+        }
+
+        // Reloads the children if they were loaded, keeping the items and expansion of groups that still exist
+        private void refresh() {
+            if (loaded) {
+                load();
+            }
+        }
+
+        private void load() {
+            Map<Object, TreeItem<Object>> existing = new IdentityHashMap<>();
+            for (TreeItem<Object> child : super.getChildren()) {
+                existing.put(child.getValue(), child);
+            }
+            List<TreeItem<Object>> children = new ArrayList<>();
+            for (Object group : groups()) {
+                TreeItem<Object> child = existing.get(group);
+                if (child == null) {
+                    child = new BrowserItem(group);
+                } else {
+                    ((BrowserItem) child).refresh();
+                }
+                children.add(child);
+            }
+            super.getChildren().setAll(children);
+        }
+
+        private Collection<?> groups() {
+            Object value = getValue();
+            if (value instanceof AlbumIndex) {
+                return ((AlbumIndex) value).getArtists();
+            } else if (value instanceof AlbumIndex.Artist) {
+                return ((AlbumIndex.Artist) value).getAlbums();
+            } else if (value instanceof AlbumIndex.Album) {
+                return ((AlbumIndex.Album) value).getTracks();
+            }
+            return List.of();
+        }
+    }
+
+    private TreeCell<Object> createBrowserCell() {
+        ImageView cover = new ImageView();
+        cover.setFitWidth(32);
+        cover.setFitHeight(32);
+        TreeCell<Object> cell = new TreeCell<>() {
+            @Override
+            protected void updateItem(Object item, boolean empty) {
+                super.updateItem(item, empty);
+                setGraphic(null);
+                if (empty || item == null) {
+                    setText(null);
+                } else if (item instanceof AlbumIndex.Artist) {
+                    AlbumIndex.Artist artist = (AlbumIndex.Artist) item;
+                    setText(orUnknown(artist.getName(), "Unknown artist") + " (" + artist.getTrackCount() + " tracks, "
+                            + TimeFormat.mmss((int) artist.getTotalSeconds()) + ")");
+                } else if (item instanceof AlbumIndex.Album) {
+                    AlbumIndex.Album album = (AlbumIndex.Album) item;
+                    setText(orUnknown(album.getTitle(), "Unknown album") + " (" + album.getTrackCount() + " tracks, "
+                            + TimeFormat.mmss((int) album.getTotalSeconds()) + ")");
+                    // Tracks of an album share one decoded cover in the album art cache
+                    cover.setImage(null);
+                    setGraphic(cover);
+                    if (album.getCover() != null) {
+                        controller.loadAlbumArt(album.getCover(), 32, image -> {
+                            if (getItem() == album) {
+                                cover.setImage(image);
+                            }
+                        });
+                    }
+                } else {
+                    Song song = (Song) item;
+                    setText(song.getSongName() + " - " + TimeFormat.mmss(song.getDuration()));
+                }
+            }
+        };
+        cell.setOnMouseClicked(event -> {
+            if (event.getClickCount() == 2 && cell.getItem() instanceof Song) {
+                controller.playNow((Song) cell.getItem());
+            }
+        });
+        return cell;
+    }
+
+    private static String orUnknown(String name, String unknown) {
+        return name == null || name.isEmpty() ? unknown : name;
+    }
+
+    // Row number taken from the cell's own index, so rendering a row costs O(1)
+    private TableCell<Song, Void> createRowNumberCell() {
+        return new TableCell<>() {
+            @Override
+            protected void updateItem(Void item, boolean empty) {
+                super.updateItem(item, empty);
+                if (empty || getIndex() < 0) {
+                    setText(null);
+                } else {
+                    setText(Integer.toString(getIndex() + 1));
+                    setAlignment(Pos.CENTER); // Center the content
+                }
+            }
+        };
+    }
+
+    private HBox createSearchBox() {
+        TextField searchField = new TextField();
+        searchField.setPromptText("Search title, artist or album");
+        // The query runs on the search index thread, results are applied when they are ready
+        searchField.textProperty().addListener((obs, oldText, newText) -> controller.search(newText));
+
+        Label searchStatusLabel = new Label();
+        searchStatusLabel.setStyle("-fx-font-size: 10px;");
+        searchStatusLabel.textProperty().bind(controller.searchStatusProperty());
+
+        HBox searchBox = new HBox(10, searchField, searchStatusLabel);
+        searchBox.setAlignment(Pos.CENTER_LEFT);
+        searchBox.setStyle("-fx-padding: 5;");
+        HBox.setHgrow(searchField, Priority.ALWAYS);
+        return searchBox;
+    }
+
+    private TableView<Song> createTableView() {
+        TableView<Song> tableView = new TableView<>();
+        tableView.setItems(controller.getVisibleSongs());
+
+        TableColumn<Song, Void> numberColumn = new TableColumn<>("#");
+        numberColumn.setPrefWidth(30);
+        numberColumn.setSortable(false);
+        numberColumn.setCellFactory(column -> createRowNumberCell());
+
+        TableColumn<Song, Void> titleColumn = createSongColumn("Title", 120, Song::getSongName, Pos.CENTER_LEFT);
+        TableColumn<Song, Void> artistColumn = createSongColumn("Artist", 120, Song::getArtistName, Pos.CENTER_LEFT);
+        TableColumn<Song, Void> albumColumn = createSongColumn("Album", 120, Song::getAlbum, Pos.CENTER_LEFT);
+        // Convert duration from seconds to minutes and seconds
+        TableColumn<Song, Void> durationColumn = createSongColumn("Duration", 100,
+                song -> TimeFormat.mmss(song.getDuration()), Pos.CENTER);
+
+        tableView.getColumns().addAll(numberColumn, titleColumn, artistColumn, albumColumn, durationColumn);
+        tableView.setRowFactory(table -> createSongRow());
+
+        // Columns sort on keys computed once per song instead of comparing cell values through their
+        // wrappers. Later columns in the sort order break ties of earlier ones.
+        Map<TableColumn<Song, ?>, Comparator<Song>> columnKeys = Map.of(
+                titleColumn, SortKeys.TITLE,
+                artistColumn, SortKeys.ARTIST,
+                albumColumn, SortKeys.ALBUM,
+                durationColumn, SortKeys.DURATION);
+        tableView.setSortPolicy(table -> {
+            Comparator<Song> order = null;
+            for (TableColumn<Song, ?> column : table.getSortOrder()) {
+                Comparator<Song> key = columnKeys.get(column);
+                if (key != null) {
+                    if (column.getSortType() == TableColumn.SortType.DESCENDING) {
+                        key = key.reversed();
+                    }
+                    order = order == null ? key : order.thenComparing(key);
+                }
+            }
+            controller.sortSongs(order);
+            return true;
+        });
+        return tableView;
+    }
+
+    // Double click plays a song, the context menu adds it to the play queue
+    private TableRow<Song> createSongRow() {
+        TableRow<Song> row = new TableRow<>();
+
+        MenuItem playItem = new MenuItem("Play");
+        playItem.setOnAction(event -> controller.playNow(row.getItem()));
+        MenuItem playNextItem = new MenuItem("Play next");
+        playNextItem.setOnAction(event -> controller.playNext(row.getItem()));
+        MenuItem enqueueItem = new MenuItem("Add to queue");
+        enqueueItem.setOnAction(event -> controller.enqueue(row.getItem()));
+        ContextMenu contextMenu = new ContextMenu(playItem, playNextItem, enqueueItem);
+
+        row.contextMenuProperty().bind(Bindings.when(row.emptyProperty()).then((ContextMenu) null).otherwise(contextMenu));
+        row.setOnMouseClicked(event -> {
+            if (event.getClickCount() == 2 && !row.isEmpty()) {
+                controller.playNow(row.getItem());
+            }
+        });
+        return row;
+    }
+
+    // Column without a cell value factory: its cells read the field straight from the row's song, so
+    // scrolling allocates no observable wrapper per cell. The cell is updated whenever the row's song
+    // changes; sorting uses SortKeys rather than cell values.
+    private TableColumn<Song, Void> createSongColumn(String title, double width, Function<Song, String> text, Pos alignment) {
+        TableColumn<Song, Void> column = new TableColumn<>(title);
+        column.setPrefWidth(width);
+        column.setCellFactory(tableColumn -> new TableCell<>() {
+            @Override
+            protected void updateItem(Void item, boolean empty) {
+                super.updateItem(item, empty);
+                Song song = empty || getTableRow() == null ? null : getTableRow().getItem();
+                setText(song == null ? null : text.apply(song));
+                setAlignment(alignment);
+            }
+        });
+        return column;
+    }
+
+    private Button createPlayPauseButton() {
+        Button playPauseButton = new Button("⏵");
+        playPauseButton.setPrefSize(30, 30); // Set preferred size
+
+        // Set the initial button state and action
+        playPauseButton.setOnAction(event -> {
+            if (controller.isPlayingProperty().get()) {
+                controller.pause();
+            } else {
+                controller.play();
+            }
+        });
+
+        // Update button state when playback status changes
+        controller.isPlayingProperty().addListener((obs, oldVal, newVal) -> {
+            if (newVal) {
+                playPauseButton.setText("⏸"); // Change button text to pause icon
+            } else {
+                playPauseButton.setText("⏵"); // Change button text to play icon
+            }
+        });
+
+        return playPauseButton;
+    }
+
+    private HBox createCurrentlyPlayingBox() {
+        currentlyPlayingLabel.textProperty().bind(controller.currentlyPlayingProperty());
+        currentlyPlayingLabel.setWrapText(true); // Enable text wrapping for multiline text
+        albumArtView.setFitWidth(Controller.ALBUM_ART_SIZE);
+        albumArtView.setFitHeight(Controller.ALBUM_ART_SIZE);
+        albumArtView.setPreserveRatio(true); // Preserve aspect ratio
+        albumArtView.setSmooth(true); // Enable smooth scaling
+
+        // Create an HBox to hold the album art view and label
+        HBox albumArtLabelBox = new HBox(10, albumArtView, currentlyPlayingLabel);
+        albumArtLabelBox.setAlignment(Pos.CENTER_LEFT); // Align items to the left
+
+        return albumArtLabelBox;
+    }
+
+    private HBox createControlButtons() {
+        Button playPauseButton = createPlayPauseButton();
+        playPauseButton.setPrefSize(30, 30); // Set preferred size
+
+        Button nextButton = new Button("⏭");
+        nextButton.setPrefSize(30, 30); // Set preferred size
+
+        Button previousButton = new Button("⏮");
+        previousButton.setPrefSize(30, 30); // Set preferred size
+
+        Button shuffleButton = new Button("🔀");
+        shuffleButton.setPrefSize(30, 30); // Set preferred size
+
+        // Set actions for other buttons (next, previous, shuffle)
+        nextButton.setOnAction(event -> controller.next());
+        previousButton.setOnAction(event -> controller.previous());
+        shuffleButton.setOnAction(event -> controller.shuffle());
+
+        // Create the volume slider
+        Slider volumeSlider = controller.getVolumeSlider();
+        volumeSlider.setPrefWidth(100); // Set preferred width for the volume slider
+
+        // Create the mute button
+        Button muteButton = new Button("🔊");
+        muteButton.setPrefSize(30, 30); // Set preferred size
+        muteButton.setOnAction(event -> controller.toggleMute());
+
+        // Update the mute button text when the mute state changes
+        controller.isMutedProperty().addListener((obs, wasMuted, isNowMuted) -> {
+            if (isNowMuted) {
+                muteButton.setText("🔇"); // Change button text to mute icon
+            } else {
+                muteButton.setText("🔊"); // Change button text to unmute icon
+            }
+        });
+
+        HBox controlButtons = new HBox(10, previousButton, playPauseButton, nextButton, shuffleButton, muteButton, volumeSlider);
+        controlButtons.setAlignment(Pos.CENTER_RIGHT); // Align items to the right
+
+        return controlButtons;
+    }
+
+    private VBox createBottomControls() {
+        HBox currentlyPlayingBox = createCurrentlyPlayingBox();
+        HBox controlButtons = createControlButtons();
+        Slider progressBar = createProgressBar();
+
+        // Create a wrapper HBox to align currentlyPlayingBox to the left and controlButtons to the right
+        HBox bottomHBox = new HBox(currentlyPlayingBox, controlButtons);
+        HBox.setHgrow(controlButtons, Priority.ALWAYS); // Make control buttons take available space to the right
+        bottomHBox.setAlignment(Pos.CENTER_LEFT);
+        bottomHBox.setStyle("-fx-padding: 10;");
+
+        VBox bottomControls = new VBox(bottomHBox);
+        bottomControls.setStyle("-fx-padding: 15; -fx-alignment: center;");
+
+        // Create a separate HBox for the progressBar to control its width independently
+        HBox progressBarBox = new HBox(progressBar);
+        progressBarBox.setAlignment(Pos.CENTER_LEFT);
+        progressBarBox.setStyle("-fx-padding: 10; -fx-alignment: center;");
+
+        // Create labels for time elapsed and total duration
+        Label timeElapsedLabel = new Label();
+        Label totalDurationLabel = new Label();
+
+        // Convert seconds to minutes:seconds format, the position only changes once per second
+        timeElapsedLabel.textProperty().bind(Bindings.createStringBinding(
+                () -> TimeFormat.mmss((int) controller.currentTimeProperty().get()), controller.currentTimeProperty()));
+        totalDurationLabel.textProperty().bind(Bindings.createStringBinding(
+                () -> TimeFormat.mmss((int) controller.totalDurationProperty().get()), controller.totalDurationProperty()));
+
+        // Create an HBox to hold the time labels and progress bar
+        HBox timeBox = new HBox(10, timeElapsedLabel, createWaveformStrip(progressBar), totalDurationLabel);
+        timeBox.setAlignment(Pos.CENTER);
+        timeBox.setStyle("-fx-padding: 10; -fx-alignment: center;");
+
+        bottomControls.getChildren().add(timeBox);
+
+        return bottomControls;
+    }
+
+    // Waveform of the current song drawn where the slider's track would be, played part highlighted.
+    // It is redrawn only when the song, the width or the position changes, and drawing allocates nothing.
+    private StackPane createWaveformStrip(Slider progressBar) {
+        Canvas canvas = new Canvas(0, 28);
+        canvas.widthProperty().bind(progressBar.widthProperty());
+        canvas.setMouseTransparent(true);
+        progressBar.skinProperty().addListener((obs, oldSkin, skin) -> {
+            Node track = progressBar.lookup(".track");
+            if (track != null) {
+                track.setStyle("-fx-background-color: transparent;");
+            }
+        });
+
+        Runnable redraw = () -> drawWaveform(canvas, controller.waveformProperty().get(), progressBar.getValue() / progressBar.getMax());
+        canvas.widthProperty().addListener((obs, oldWidth, width) -> redraw.run());
+        controller.waveformProperty().addListener((obs, oldPeaks, peaks) -> redraw.run());
+        progressBar.valueProperty().addListener((obs, oldValue, value) -> redraw.run());
+        return new StackPane(canvas, progressBar);
+    }
+
+    private static void drawWaveform(Canvas canvas, WaveformCache.Peaks peaks, double progress) {
+        GraphicsContext graphics = canvas.getGraphicsContext2D();
+        double height = canvas.getHeight();
+        double middle = height / 2;
+        double left = WAVEFORM_INSET;
+        int columns = (int) (canvas.getWidth() - 2 * WAVEFORM_INSET);
+        double playedColumns = progress * columns;
+        graphics.clearRect(0, 0, canvas.getWidth(), height);
+        if (columns <= 0) {
+            return;
+        }
+        if (peaks == null || peaks.size() == 0) {
+            // No waveform yet, a plain track
+            graphics.setFill(WAVEFORM_PLAYED);
+            graphics.fillRect(left, middle - 1, playedColumns, 2);
+            graphics.setFill(WAVEFORM_REMAINING);
+            graphics.fillRect(left + playedColumns, middle - 1, columns - playedColumns, 2);
+            return;
+        }
+        int buckets = peaks.size();
+        for (int x = 0; x < columns; x++) {
+            // Every column covers one or more buckets, or repeats one when the song has fewer buckets than columns
+            int from = (int) ((long) x * buckets / columns);
+            int to = Math.max(from + 1, (int) ((long) (x + 1) * buckets / columns));
+            int min = 0;
+            int max = 0;
+            for (int bucket = from; bucket < to; bucket++) {
+                min = Math.min(min, peaks.min(bucket));
+                max = Math.max(max, peaks.max(bucket));
+            }
+            double top = middle - max * middle / 127;
+            double bottom = middle - min * middle / 127;
+            graphics.setFill(x < playedColumns ? WAVEFORM_PLAYED : WAVEFORM_REMAINING);
+            graphics.fillRect(left + x, top, 1, Math.max(1, bottom - top));
+        }
+    }
+
+    private Slider createProgressBar() {
+        Slider progressBar = new Slider();
+        progressBar.setPrefWidth(400); // Set preferred width for the progress bar
+        progressBar.setMax(100); // Set maximum value (this will represent 100% of the song's duration)
+
+        // Bind the slider's value to the current position of the song
+        controller.currentTimeProperty().addListener((obs, oldTime, newTime) -> {
+            if (!progressBar.isValueChanging()) { // If user is not dragging the slider
+                double total = controller.totalDurationProperty().get();
+                if (total > 0) {
+                    progressBar.setValue(newTime.doubleValue() / total * 100);
+                }
+            }
+        });
+
+        // Allow the user to seek by dragging the slider
+        progressBar.valueChangingProperty().addListener((obs, wasChanging, isChanging) -> {
+            if (!isChanging) { // When user finishes dragging the slider
+                double total = controller.totalDurationProperty().get();
+                if (total > 0) {
+                    controller.seek(progressBar.getValue() / 100 * total);
+                }
+            }
+        });
+
+        progressBar.setOnMouseReleased(event -> { // When user clicks on the slider
+            double total = controller.totalDurationProperty().get();
+            if (total > 0) {
+                controller.seek(progressBar.getValue() / 100 * total);
+            }
+        });
+
+        return progressBar;
+    }
+}
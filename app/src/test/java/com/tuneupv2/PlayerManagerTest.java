@@ -0,0 +1,96 @@
+package com.tuneupv2;
+
+import com.tuneupv2.library.Metrics;
+import com.tuneupv2.library.Song;
+import javafx.beans.property.SimpleBooleanProperty;
+import javafx.beans.property.SimpleDoubleProperty;
+import javafx.scene.media.Media;
+import javafx.scene.media.MediaException;
+import javafx.scene.media.MediaPlayer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.sound.sampled.AudioFileFormat;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class PlayerManagerTest {
+    // Tracks skipped through by the soak tests, -Dtuneup.soakTracks=<n> for a longer or shorter run
+    private static final int SOAK_TRACKS = Integer.getInteger("tuneup.soakTracks", 10_000);
+
+    @TempDir
+    Path folder;
+
+    private final PlayerManager players = new PlayerManager(new SimpleDoubleProperty(), new SimpleDoubleProperty(),
+            new SimpleDoubleProperty(0.5), new SimpleBooleanProperty(), () -> {
+    });
+
+    @Test
+    void unplayableSongIsSkippedWithoutTouchingThePlayers() throws IOException {
+        Path file = Files.write(folder.resolve("track.flac"), new byte[]{'f', 'L', 'a', 'C', 0, 0, 0, 34});
+        Song song = new Song(file.toUri().toString());
+        Metrics.Counter unopened = Metrics.counter("playback.unopenedFiles");
+        long before = unopened.get();
+        for (int i = 0; i < SOAK_TRACKS; i++) {
+            assertFalse(players.play(song));
+            assertFalse(players.cue(song, 10));
+            players.preload(song);
+            assertEquals(0, players.getLivePlayers());
+            assertEquals(0, players.getLiveListeners());
+        }
+        assertEquals(3L * SOAK_TRACKS, unopened.get() - before);
+        assertFalse(players.hasPlayer());
+        assertNull(players.getCurrentSong());
+        assertEquals(0, players.getLivePlayers());
+        assertEquals(0, players.getLiveListeners());
+    }
+
+    // Soak test of the player lifecycle, skipped where the platform has no media backend
+    @Test
+    void everySwitchReleasesThePreviousPlayer() throws IOException {
+        Song first = new Song(wav("first.wav").toUri().toString());
+        Song second = new Song(wav("second.wav").toUri().toString());
+        assumeTrue(canCreatePlayer(first), "No media backend available");
+        for (int i = 0; i < SOAK_TRACKS; i++) {
+            assertTrue(players.play(i % 2 == 0 ? first : second));
+            players.preload(i % 2 == 0 ? second : first);
+            assertEquals(2, players.getLivePlayers());
+            assertEquals(2, players.getLiveListeners());
+        }
+        assertTrue(players.cue(first, 0));
+        assertEquals(1, players.getLivePlayers());
+        players.disposeAll();
+        assertEquals(0, players.getLivePlayers());
+        assertEquals(0, players.getLiveListeners());
+    }
+
+    // Half a second of silence, 16 bit mono
+    private Path wav(String name) throws IOException {
+        AudioFormat format = new AudioFormat(44100, 16, 1, true, false);
+        byte[] samples = new byte[44100];
+        Path file = folder.resolve(name);
+        AudioSystem.write(new AudioInputStream(new ByteArrayInputStream(samples), format, samples.length / 2),
+                AudioFileFormat.Type.WAVE, file.toFile());
+        return file;
+    }
+
+    private static boolean canCreatePlayer(Song song) {
+        try {
+            new MediaPlayer(new Media(song.getUrl())).dispose();
+            return true;
+        } catch (MediaException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.tuneupv2.benchmarks;
+
+import com.tuneupv2.library.TrackMetadata;
+import javafx.scene.image.Image;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+
+// Decoding embedded covers the way AlbumArtCache does, scaled to the 60 pixel view while decoding,
+// against decoding at full size and hashing the bytes for the cache key. The software pipeline is
+// selected so images decode without a display.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Dprism.order=sw", "-Djava.awt.headless=true"})
+@State(Scope.Thread)
+public class ArtworkBenchmark {
+    private static final int VIEW_SIZE = 60;
+
+    @Param({"250", "500", "1000"})
+    public int coverSize;
+
+    private byte[] cover;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        cover = Fixtures.cover(coverSize, coverSize);
+    }
+
+    @Benchmark
+    public Image decodeScaled() {
+        return check(new Image(new ByteArrayInputStream(cover), VIEW_SIZE, VIEW_SIZE, true, true));
+    }
+
+    @Benchmark
+    public Image decodeFull() {
+        return check(new Image(new ByteArrayInputStream(cover)));
+    }
+
+    @Benchmark
+    public long hash() {
+        return TrackMetadata.hash(cover);
+    }
+
+    private static Image check(Image image) {
+        if (image.isError()) {
+            throw new IllegalStateException(image.getException());
+        }
+        return image;
+    }
+}
@@ -0,0 +1,21 @@
+package com.tuneupv2.benchmarks;
+
+import org.openjdk.jmh.Main;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Runs JMH with JSON results in jmh-result.json by default, so runs of different commits can be compared
+public class BenchmarkMain {
+    public static void main(String[] args) throws Exception {
+        List<String> options = new ArrayList<>(Arrays.asList(args));
+        if (!options.contains("-rf")) {
+            options.addAll(0, List.of("-rf", "json"));
+        }
+        if (!options.contains("-rff")) {
+            options.addAll(0, List.of("-rff", "jmh-result.json"));
+        }
+        Main.main(options.toArray(new String[0]));
+    }
+}
@@ -0,0 +1,103 @@
+package com.tuneupv2.benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Launches the startup distribution (mvn -Pstartup -pl app -am package) in a new JVM until its first
+// frame, with the JDK's default class data sharing only and with the archive of the training run. The score is the time until the process
+// exited, "firstFrameMillis" the time to the first frame the player reported. The distribution folder
+// defaults to app/target/dist, change it with -jvmArgsAppend -Dtuneup.dist=<folder>. Needs a display.
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ColdStartBenchmark {
+    private static final Pattern FIRST_FRAME = Pattern.compile("First interactive frame after (\\d+) ms");
+
+    @Param({"false", "true"})
+    public boolean cds;
+
+    private Path dist;
+    private Path home;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Startup {
+        public long firstFrameMillis;
+
+        @Setup(Level.Iteration)
+        public void clear() {
+            firstFrameMillis = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dist = Paths.get(System.getProperty("tuneup.dist", "app/target/dist")).toAbsolutePath();
+        if (!Files.exists(dist.resolve("TuneupV2.jar"))) {
+            throw new IllegalStateException("No startup distribution in " + dist);
+        }
+        if (cds && !Files.exists(dist.resolve("tuneup.jsa"))) {
+            throw new IllegalStateException("No class data sharing archive in " + dist + ", was the training run skipped?");
+        }
+        // The player runs with its own home folder so it never reads or replaces the real library and
+        // session. -jvmArgsAppend -Dtuneup.bench.home=<folder> uses a prepared one, e.g. a copy of a large profile.
+        String prepared = System.getProperty("tuneup.bench.home");
+        home = prepared != null ? Paths.get(prepared).toAbsolutePath() : Files.createTempDirectory("tuneup-coldstart");
+    }
+
+    @Benchmark
+    public int launch(Startup startup) throws Exception {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        if (cds) {
+            command.add("-XX:SharedArchiveFile=" + dist.resolve("tuneup.jsa"));
+            command.add("-Xshare:on"); // Fails instead of silently starting without the archive
+        }
+        command.add("-Dtuneup.exitAfterFirstFrame=true");
+        command.add("-Duser.home=" + home);
+        command.add("-jar");
+        command.add(dist.resolve("TuneupV2.jar").toString());
+
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        try (BufferedReader output = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            String line;
+            while ((line = output.readLine()) != null) {
+                Matcher matcher = FIRST_FRAME.matcher(line);
+                if (matcher.find()) {
+                    startup.firstFrameMillis = Long.parseLong(matcher.group(1));
+                }
+            }
+        }
+        int exitCode = process.waitFor();
+        if (exitCode != 0 || startup.firstFrameMillis == 0) {
+            throw new IllegalStateException("Player exited with " + exitCode + " before reporting its first frame");
+        }
+        return exitCode;
+    }
+}
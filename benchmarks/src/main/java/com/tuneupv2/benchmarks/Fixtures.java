@@ -0,0 +1,221 @@
+package com.tuneupv2.benchmarks;
+
+import com.tuneupv2.library.Song;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Synthetic MP3 libraries for the benchmarks. Each file is an ID3v2.3 tag followed by a few silent
+// MPEG frames, laid out as artist/album/track with 20 tracks per album and 5 albums per artist.
+// Tags vary in length and script, and albums cycle through no cover and covers of 250, 500 and
+// 1000 pixels. Libraries are generated once under target/fixtures, or the folder given with
+// -jvmArgsAppend -Dtuneup.bench.fixtures=<folder> since the benchmarks run in forked JVMs.
+public final class Fixtures {
+    public static final int TRACKS_PER_ALBUM = 20;
+    public static final int ALBUMS_PER_ARTIST = 5;
+    public static final int[] COVER_SIZES = {0, 250, 500, 1000};
+
+    // MPEG-1 Layer III, 128 kbit/s, 44.1 kHz, no padding: 417 bytes per frame
+    private static final byte[] FRAME_HEADER = {(byte) 0xFF, (byte) 0xFB, (byte) 0x90, 0x00};
+    private static final int FRAME_LENGTH = 417;
+
+    private static final String[] WORDS = {
+            "love", "night", "river", "electric", "blue", "dreams", "summer", "fire", "Zürich", "café",
+            "ghost", "heart", "city", "Москва", "road", "echo", "paper", "moon", "東京", "silver",
+            "wild", "glass", "Beyoncé", "storm", "garden", "ocean", "north", "golden", "shadow", "rain"
+    };
+
+    private Fixtures() {
+    }
+
+    // Returns the folder of a library with the given number of files, generating it if needed
+    public static synchronized Path library(int files) throws IOException {
+        Path root = baseFolder().resolve("library-" + files);
+        Path marker = root.resolve(".complete");
+        if (Files.exists(marker)) {
+            return root;
+        }
+        System.out.println("Generating " + files + " fixture files in " + root);
+        long start = System.currentTimeMillis();
+        byte[] cover = null;
+        for (int i = 0; i < files; i++) {
+            int album = albumOf(i);
+            if (i % TRACKS_PER_ALBUM == 0) {
+                cover = cover(coverSize(album), album);
+            }
+            Path file = root.resolve(relativePath(i));
+            Files.createDirectories(file.getParent());
+            try (OutputStream out = Files.newOutputStream(file)) {
+                out.write(tag(songName(i), artistName(artistOf(i)), albumName(album), i % TRACKS_PER_ALBUM + 1, cover));
+                byte[] frame = new byte[FRAME_LENGTH];
+                System.arraycopy(FRAME_HEADER, 0, frame, 0, FRAME_HEADER.length);
+                int frames = 10 + i % 31;
+                for (int f = 0; f < frames; f++) {
+                    out.write(frame);
+                }
+            }
+        }
+        Files.createFile(marker);
+        System.out.println("Generated " + files + " files in " + (System.currentTimeMillis() - start) + " ms");
+        return root;
+    }
+
+    // The same songs the scanner would produce for a library of the given size, without touching disk
+    public static List<Song> songs(int count) {
+        List<Song> songs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int album = albumOf(i);
+            songs.add(new Song(
+                    String.valueOf(i),
+                    artistName(artistOf(i)),
+                    songName(i),
+                    90 + i % 331,
+                    albumName(album),
+                    "file:/fixtures/" + relativePath(i).replace(' ', '_'),
+                    coverSize(album) == 0 ? 0 : album + 1
+            ));
+        }
+        return songs;
+    }
+
+    public static int coverSize(int album) {
+        return COVER_SIZES[album % COVER_SIZES.length];
+    }
+
+    public static int albumOf(int track) {
+        return track / TRACKS_PER_ALBUM;
+    }
+
+    public static int artistOf(int track) {
+        return albumOf(track) / ALBUMS_PER_ARTIST;
+    }
+
+    public static String relativePath(int track) {
+        int artist = artistOf(track);
+        int album = albumOf(track);
+        return String.format("artist%04d/album%05d/%02d track%d.mp3", artist, album, track % TRACKS_PER_ALBUM + 1, track);
+    }
+
+    public static String songName(int track) {
+        Random random = new Random(track);
+        int words = 1 + random.nextInt(6);
+        StringBuilder name = new StringBuilder();
+        for (int w = 0; w < words; w++) {
+            if (w > 0) {
+                name.append(' ');
+            }
+            String word = WORDS[random.nextInt(WORDS.length)];
+            name.append(w == 0 ? Character.toUpperCase(word.charAt(0)) + word.substring(1) : word);
+        }
+        if (track % 9 == 0) {
+            name.append(" (Remastered ").append(1990 + track % 30).append(')');
+        }
+        return name.toString();
+    }
+
+    public static String artistName(int artist) {
+        Random random = new Random(-1 - artist);
+        String first = WORDS[random.nextInt(WORDS.length)];
+        String second = WORDS[random.nextInt(WORDS.length)];
+        String name = Character.toUpperCase(first.charAt(0)) + first.substring(1) + " " + second;
+        return artist % 4 == 0 ? "The " + name : name + " " + artist;
+    }
+
+    public static String albumName(int album) {
+        Random random = new Random(album * 31L + 7);
+        String word = WORDS[random.nextInt(WORDS.length)];
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1) + " Vol. " + (album % ALBUMS_PER_ARTIST + 1);
+    }
+
+    // JPEG cover with a gradient and some noise so it compresses like real artwork, or null for size 0
+    public static byte[] cover(int size, int seed) throws IOException {
+        if (size == 0) {
+            return null;
+        }
+        Random random = new Random(seed);
+        BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setPaint(new GradientPaint(0, 0, new Color(random.nextInt(0xFFFFFF)), size, size, new Color(random.nextInt(0xFFFFFF))));
+        graphics.fillRect(0, 0, size, size);
+        for (int i = 0; i < 12; i++) {
+            graphics.setColor(new Color(random.nextInt(0xFFFFFF)));
+            graphics.fillOval(random.nextInt(size), random.nextInt(size), size / 4, size / 4);
+        }
+        graphics.dispose();
+        for (int i = 0; i < size * size / 20; i++) {
+            image.setRGB(random.nextInt(size), random.nextInt(size), random.nextInt(0xFFFFFF));
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpg", out);
+        return out.toByteArray();
+    }
+
+    private static Path baseFolder() {
+        return Paths.get(System.getProperty("tuneup.bench.fixtures", "target/fixtures"));
+    }
+
+    private static byte[] tag(String title, String artist, String album, int track, byte[] cover) throws IOException {
+        ByteArrayOutputStream frames = new ByteArrayOutputStream();
+        textFrame(frames, "TIT2", title);
+        textFrame(frames, "TPE1", artist);
+        textFrame(frames, "TALB", album);
+        textFrame(frames, "TRCK", String.valueOf(track));
+        if (cover != null) {
+            ByteArrayOutputStream picture = new ByteArrayOutputStream();
+            picture.write(0); // ISO-8859-1 description
+            picture.write("image/jpeg".getBytes(StandardCharsets.ISO_8859_1));
+            picture.write(0);
+            picture.write(3); // Front cover
+            picture.write(0); // Empty description
+            picture.write(cover);
+            frame(frames, "APIC", picture.toByteArray());
+        }
+        int size = frames.size();
+        ByteArrayOutputStream tag = new ByteArrayOutputStream(size + 10);
+        tag.write(new byte[]{'I', 'D', '3', 3, 0, 0});
+        // Tag size is stored as a 28 bit synchsafe integer
+        tag.write((size >> 21) & 0x7F);
+        tag.write((size >> 14) & 0x7F);
+        tag.write((size >> 7) & 0x7F);
+        tag.write(size & 0x7F);
+        frames.writeTo(tag);
+        return tag.toByteArray();
+    }
+
+    private static void textFrame(OutputStream out, String id, String value) throws IOException {
+        boolean latin1 = value.chars().allMatch(c -> c < 0x100);
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        if (latin1) {
+            body.write(0);
+            body.write(value.getBytes(StandardCharsets.ISO_8859_1));
+        } else {
+            body.write(1);
+            body.write(value.getBytes(StandardCharsets.UTF_16)); // With byte order mark
+        }
+        frame(out, id, body.toByteArray());
+    }
+
+    private static void frame(OutputStream out, String id, byte[] body) throws IOException {
+        out.write(id.getBytes(StandardCharsets.ISO_8859_1));
+        out.write(body.length >>> 24);
+        out.write(body.length >>> 16);
+        out.write(body.length >>> 8);
+        out.write(body.length);
+        out.write(0);
+        out.write(0);
+        out.write(body);
+    }
+}
@@ -0,0 +1,95 @@
+package com.tuneupv2.benchmarks;
+
+import com.tuneupv2.library.LibraryIndex;
+import com.tuneupv2.library.LibraryScanner;
+import com.tuneupv2.library.LibraryWalker;
+import com.tuneupv2.library.Song;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Full folder scans as the player runs them: walking only, a cold scan that parses every file and
+// a warm scan that takes every file from the library index
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ScanBenchmark {
+    @Param({"1000", "10000", "100000"})
+    public int files;
+
+    private File root;
+    private LibraryIndex warmIndex;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        root = Fixtures.library(files).toFile();
+        Path indexFile = Files.createTempFile("tuneup-bench", ".idx");
+        Files.delete(indexFile);
+        warmIndex = new LibraryIndex(indexFile);
+        scan(warmIndex);
+    }
+
+    @Benchmark
+    public int walk() throws Exception {
+        AtomicInteger count = new AtomicInteger();
+        new LibraryWalker(false).walk(root.toPath(), path -> count.incrementAndGet(), () -> false);
+        return count.get();
+    }
+
+    @Benchmark
+    public int coldScan() throws Exception {
+        return scan(LibraryIndex.inMemory());
+    }
+
+    @Benchmark
+    public int warmScan() throws Exception {
+        return scan(warmIndex);
+    }
+
+    private int scan(LibraryIndex index) throws InterruptedException {
+        LibraryScanner scanner = new LibraryScanner(index, false);
+        AtomicInteger songs = new AtomicInteger();
+        CountDownLatch finished = new CountDownLatch(1);
+        scanner.scan(root, new LibraryScanner.Listener() {
+            @Override
+            public void onBatch(LibraryScanner.Scan scan, List<Song> batch) {
+                songs.addAndGet(batch.size());
+            }
+
+            @Override
+            public void onProgress(LibraryScanner.Scan scan, int scanned, int total) {
+            }
+
+            @Override
+            public void onFinished(LibraryScanner.Scan scan, int scanned, boolean cancelled) {
+                finished.countDown();
+            }
+        });
+        finished.await();
+        scanner.shutdown();
+        if (songs.get() != files) {
+            throw new IllegalStateException("Scanned " + songs.get() + " of " + files + " files");
+        }
+        return songs.get();
+    }
+}
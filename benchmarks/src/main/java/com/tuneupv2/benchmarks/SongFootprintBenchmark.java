@@ -0,0 +1,67 @@
+package com.tuneupv2.benchmarks;
+
+import com.tuneupv2.library.Song;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Heap retained per Song with its strings, reported as the secondary result "retainedBytesPerSong".
+// Artist and album names are shared between songs, so they add little per song.
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-XX:+UseSerialGC")
+@State(Scope.Benchmark)
+public class SongFootprintBenchmark {
+    @Param({"1000", "10000", "100000"})
+    public int songs;
+
+    private List<Song> retained;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public long retainedBytesPerSong;
+
+        @Setup(Level.Iteration)
+        public void clear() {
+            retainedBytesPerSong = 0;
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void release() {
+        retained = null;
+    }
+
+    @Benchmark
+    public List<Song> build(Footprint footprint) {
+        long before = usedHeap();
+        retained = Fixtures.songs(songs);
+        long after = usedHeap();
+        footprint.retainedBytesPerSong = (after - before) / songs;
+        return retained;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
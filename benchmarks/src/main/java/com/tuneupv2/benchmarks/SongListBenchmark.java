@@ -0,0 +1,122 @@
+package com.tuneupv2.benchmarks;
+
+import com.tuneupv2.library.SearchIndex;
+import com.tuneupv2.library.Song;
+import com.tuneupv2.library.SortKeys;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
+import javafx.collections.transformation.SortedList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+// Sorting and filtering the song list behind the table, with the same JavaFX list wrappers the View
+// uses. Filtering compares the search index against scanning every song's fields.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SongListBenchmark {
+    private static final Comparator<Song> BY_ARTIST_ALBUM_TITLE = Comparator
+            .comparing(Song::getArtistName, String.CASE_INSENSITIVE_ORDER)
+            .thenComparing(Song::getAlbum, String.CASE_INSENSITIVE_ORDER)
+            .thenComparing(Song::getSongName, String.CASE_INSENSITIVE_ORDER);
+    private static final Comparator<Song> BY_ARTIST_ALBUM_TITLE_KEYS = SortKeys.ARTIST
+            .thenComparing(SortKeys.ALBUM)
+            .thenComparing(SortKeys.TITLE);
+
+    @Param({"1000", "10000", "100000"})
+    public int songs;
+
+    private ObservableList<Song> list;
+    private SearchIndex searchIndex;
+
+    @State(Scope.Thread)
+    public static class Query {
+        @Param({"lo", "golden rain"})
+        public String text;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        list = FXCollections.observableArrayList(Fixtures.songs(songs));
+        list.forEach(SortKeys::prepare); // Done by the scanner threads in the player
+        searchIndex = new SearchIndex();
+        searchIndex.addAll(list);
+        search(""); // Waits until the songs are indexed
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        searchIndex.clear();
+    }
+
+    // Comparing the strings, as a baseline for the precomputed keys
+    @Benchmark
+    public int sortWithStrings() {
+        return new SortedList<>(list, BY_ARTIST_ALBUM_TITLE).size();
+    }
+
+    // The table's sort on precomputed collation keys
+    @Benchmark
+    public int sortWithKeys() {
+        return new SortedList<>(list, BY_ARTIST_ALBUM_TITLE_KEYS).size();
+    }
+
+    @Benchmark
+    public int sortByDuration() {
+        return new SortedList<>(list, SortKeys.DURATION.reversed()).size();
+    }
+
+    @Benchmark
+    public int searchIndex(Query query) throws Exception {
+        return search(query.text).size();
+    }
+
+    @Benchmark
+    public int filterWithIndex(Query query) throws Exception {
+        return new FilteredList<>(list, search(query.text)).size();
+    }
+
+    @Benchmark
+    public int filterWithScan(Query query) {
+        String[] words = query.text.toLowerCase(Locale.ROOT).split(" ");
+        return new FilteredList<>(list, song -> {
+            for (String word : words) {
+                if (!contains(song.getSongName(), word) && !contains(song.getArtistName(), word)
+                        && !contains(song.getAlbum(), word)) {
+                    return false;
+                }
+            }
+            return true;
+        }).size();
+    }
+
+    private SearchIndex.Result search(String query) throws Exception {
+        CompletableFuture<SearchIndex.Result> result = new CompletableFuture<>();
+        searchIndex.search(query, result::complete);
+        return result.get();
+    }
+
+    private static boolean contains(String field, String word) {
+        return field != null && field.toLowerCase(Locale.ROOT).contains(word);
+    }
+}
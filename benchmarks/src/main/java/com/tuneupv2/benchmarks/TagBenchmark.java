@@ -0,0 +1,67 @@
+package com.tuneupv2.benchmarks;
+
+import com.tuneupv2.library.MetadataExtractor;
+import com.tuneupv2.library.TrackMetadata;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Parsing one file with jaudiotagger, per cover size, cycling through the files of the 1k library
+// so the OS file cache is warm but no single file is read twice in a row
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class TagBenchmark {
+    @Param({"0", "250", "500", "1000"})
+    public int coverSize;
+
+    private final MetadataExtractor extractor = new MetadataExtractor();
+    private File[] files;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Path root = Fixtures.library(1000);
+        List<File> matching = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            if (Fixtures.coverSize(Fixtures.albumOf(i)) == coverSize) {
+                matching.add(root.resolve(Fixtures.relativePath(i)).toFile());
+            }
+        }
+        files = matching.toArray(new File[0]);
+    }
+
+    @Benchmark
+    public TrackMetadata extract() throws Exception {
+        return extractor.extract(nextFile());
+    }
+
+    @Benchmark
+    public byte[] readArtwork() throws Exception {
+        return extractor.readArtwork(nextFile());
+    }
+
+    private File nextFile() {
+        File file = files[next];
+        next = (next + 1) % files.length;
+        return file;
+    }
+}
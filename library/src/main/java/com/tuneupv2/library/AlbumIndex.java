@@ -0,0 +1,156 @@
+package com.tuneupv2.library;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeMap;
+
+// Artist, album and track groups of the song list with their track counts, total durations and a
+// shared cover per album. It is updated from the same added and removed songs as the search index,
+// so listing the artists or the albums or tracks of one group costs the size of that group, never a
+// pass over the library. Names are grouped in table order, ignoring case. Not thread safe.
+public class AlbumIndex {
+    private static final Comparator<Song> BY_URL = Comparator.comparing(Song::getUrl);
+
+    private final TreeMap<String, Artist> artists = new TreeMap<>(SortKeys::compareNames);
+    private int trackCount;
+
+    public static class Artist {
+        private final String name;
+        private final TreeMap<String, Album> albums = new TreeMap<>(SortKeys::compareNames);
+        private int trackCount;
+        private long totalSeconds;
+
+        private Artist(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Collection<Album> getAlbums() {
+            return Collections.unmodifiableCollection(albums.values());
+        }
+
+        public int getTrackCount() {
+            return trackCount;
+        }
+
+        public long getTotalSeconds() {
+            return totalSeconds;
+        }
+    }
+
+    public static class Album {
+        private final String title;
+        private final Artist artist;
+        private final List<Song> tracks = new ArrayList<>(); // Sorted by URL, which keeps track numbers in file names in order
+        private long totalSeconds;
+        private Song cover; // A track whose embedded cover stands for the album, null if none has one
+
+        private Album(String title, Artist artist) {
+            this.title = title;
+            this.artist = artist;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public Artist getArtist() {
+            return artist;
+        }
+
+        public List<Song> getTracks() {
+            return Collections.unmodifiableList(tracks);
+        }
+
+        public int getTrackCount() {
+            return tracks.size();
+        }
+
+        public long getTotalSeconds() {
+            return totalSeconds;
+        }
+
+        public Song getCover() {
+            return cover;
+        }
+    }
+
+    public void addAll(Collection<Song> songs) {
+        for (Song song : songs) {
+            add(song);
+        }
+    }
+
+    public void add(Song song) {
+        String artistName = nullToEmpty(song.getArtistName());
+        String albumTitle = nullToEmpty(song.getAlbum());
+        Artist artist = artists.computeIfAbsent(artistName, Artist::new);
+        Album album = artist.albums.computeIfAbsent(albumTitle, title -> new Album(title, artist));
+        int position = Collections.binarySearch(album.tracks, song, BY_URL);
+        album.tracks.add(position < 0 ? -position - 1 : position, song);
+        album.totalSeconds += song.getDuration();
+        if (album.cover == null && song.getArtworkHash() != TrackMetadata.NO_ARTWORK) {
+            album.cover = song;
+        }
+        artist.trackCount++;
+        artist.totalSeconds += song.getDuration();
+        trackCount++;
+    }
+
+    public void removeAll(Collection<Song> songs) {
+        for (Song song : songs) {
+            remove(song);
+        }
+    }
+
+    // Removes exactly this song object, its artist and album fields must not have changed since it was added
+    public void remove(Song song) {
+        Artist artist = artists.get(nullToEmpty(song.getArtistName()));
+        Album album = artist == null ? null : artist.albums.get(nullToEmpty(song.getAlbum()));
+        if (album == null || !album.tracks.remove(song)) {
+            return;
+        }
+        album.totalSeconds -= song.getDuration();
+        if (album.cover == song) {
+            album.cover = null;
+            for (Song track : album.tracks) {
+                if (track.getArtworkHash() != TrackMetadata.NO_ARTWORK) {
+                    album.cover = track;
+                    break;
+                }
+            }
+        }
+        if (album.tracks.isEmpty()) {
+            artist.albums.remove(album.title);
+        }
+        artist.trackCount--;
+        artist.totalSeconds -= song.getDuration();
+        if (artist.albums.isEmpty()) {
+            artists.remove(artist.name);
+        }
+        trackCount--;
+    }
+
+    public void clear() {
+        artists.clear();
+        trackCount = 0;
+    }
+
+    public Collection<Artist> getArtists() {
+        return Collections.unmodifiableCollection(artists.values());
+    }
+
+    public int getTrackCount() {
+        return trackCount;
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
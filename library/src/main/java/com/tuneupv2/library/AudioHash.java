@@ -0,0 +1,166 @@
+package com.tuneupv2.library;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Content hash of the audio in a file, so copies with different tags, names or folders get the same
+// value. Leading ID3v2 and trailing ID3v1 and APEv2 tags are skipped; in other containers the tags
+// are part of the file, so there only byte identical copies match. The audio is read in chunks into a
+// direct buffer reused by each thread and hashed with XXH64, which is non-cryptographic and runs at
+// memory speed. Unlike memory mapping, this leaves no mappings behind for the garbage collector.
+public final class AudioHash {
+    private static final long PRIME1 = 0x9E3779B185EBCA87L;
+    private static final long PRIME2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long PRIME3 = 0x165667B19E3779F9L;
+    private static final long PRIME4 = 0x85EBCA77C2B2AE63L;
+    private static final long PRIME5 = 0x27D4EB2F165667C5L;
+    private static final int CHUNK = 1 << 20; // 1 MB, a multiple of the 32 byte stripe
+    private static final ThreadLocal<ByteBuffer> BUFFERS = ThreadLocal.withInitial(
+            () -> ByteBuffer.allocateDirect(CHUNK).order(ByteOrder.LITTLE_ENDIAN));
+
+    private AudioHash() {
+    }
+
+    // Stable track id of a content hash
+    public static String trackId(long hash) {
+        return String.format("%016x", hash);
+    }
+
+    public static long hash(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long start = id3v2Length(channel, size);
+            long end = Math.max(start, size - trailingTagLength(channel, size));
+
+            // XXH64 with seed 0, the four lanes carry over from one chunk to the next
+            ByteBuffer chunk = BUFFERS.get();
+            long v1 = PRIME1 + PRIME2;
+            long v2 = PRIME2;
+            long v3 = 0;
+            long v4 = -PRIME1;
+            long position = start;
+            long tail = end - (end - start) % 32;
+            while (position < tail) {
+                readFully(channel, chunk, position, (int) Math.min(CHUNK, tail - position));
+                while (chunk.hasRemaining()) {
+                    v1 = round(v1, chunk.getLong());
+                    v2 = round(v2, chunk.getLong());
+                    v3 = round(v3, chunk.getLong());
+                    v4 = round(v4, chunk.getLong());
+                }
+                position += chunk.limit();
+            }
+
+            long length = end - start;
+            long hash;
+            if (length >= 32) {
+                hash = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+                hash = mergeRound(hash, v1);
+                hash = mergeRound(hash, v2);
+                hash = mergeRound(hash, v3);
+                hash = mergeRound(hash, v4);
+            } else {
+                hash = PRIME5;
+            }
+            hash += length;
+
+            ByteBuffer rest = readFully(channel, chunk, tail, (int) (end - tail));
+            while (rest.remaining() >= 8) {
+                hash ^= round(0, rest.getLong());
+                hash = Long.rotateLeft(hash, 27) * PRIME1 + PRIME4;
+            }
+            if (rest.remaining() >= 4) {
+                hash ^= (rest.getInt() & 0xFFFFFFFFL) * PRIME1;
+                hash = Long.rotateLeft(hash, 23) * PRIME2 + PRIME3;
+            }
+            while (rest.hasRemaining()) {
+                hash ^= (rest.get() & 0xFF) * PRIME5;
+                hash = Long.rotateLeft(hash, 11) * PRIME1;
+            }
+
+            hash ^= hash >>> 33;
+            hash *= PRIME2;
+            hash ^= hash >>> 29;
+            hash *= PRIME3;
+            hash ^= hash >>> 32;
+            return hash;
+        }
+    }
+
+    // Fills the buffer with length bytes from the position and flips it for reading
+    private static ByteBuffer readFully(FileChannel channel, ByteBuffer buffer, long position, int length) throws IOException {
+        buffer.clear().limit(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("File became shorter while it was hashed");
+            }
+        }
+        return buffer.flip();
+    }
+
+    // Small reads for the tag headers
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        return readFully(channel, ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN), position, length);
+    }
+
+    private static long round(long accumulator, long input) {
+        accumulator += input * PRIME2;
+        accumulator = Long.rotateLeft(accumulator, 31);
+        return accumulator * PRIME1;
+    }
+
+    private static long mergeRound(long accumulator, long value) {
+        accumulator ^= round(0, value);
+        return accumulator * PRIME1 + PRIME4;
+    }
+
+    // Length of an ID3v2 tag at the start of the file, 0 if there is none
+    static long id3v2Length(FileChannel channel, long size) throws IOException {
+        if (size < 10) {
+            return 0;
+        }
+        ByteBuffer header = read(channel, 0, 10);
+        if (header.get(0) != 'I' || header.get(1) != 'D' || header.get(2) != '3') {
+            return 0;
+        }
+        // Synchsafe size without the header, plus a footer of the same size if flagged
+        long length = 10 + ((header.get(6) & 0x7F) << 21 | (header.get(7) & 0x7F) << 14
+                | (header.get(8) & 0x7F) << 7 | header.get(9) & 0x7F);
+        if ((header.get(5) & 0x10) != 0) {
+            length += 10;
+        }
+        return Math.min(length, size);
+    }
+
+    // Combined length of an APEv2 and an ID3v1 tag at the end of the file, in either order
+    private static long trailingTagLength(FileChannel channel, long size) throws IOException {
+        long length = 0;
+        for (int i = 0; i < 2; i++) {
+            long end = size - length;
+            if (end >= 128 && startsWith(channel, end - 128, "TAG")) {
+                length += 128;
+            } else if (end >= 32 && startsWith(channel, end - 32, "APETAGEX")) {
+                ByteBuffer footer = read(channel, end - 32, 32);
+                // Tag size counts the items and the footer, the header is present if bit 31 of the flags is set
+                long tagSize = footer.getInt(12) & 0xFFFFFFFFL;
+                length += tagSize + ((footer.getInt(20) & 0x80000000) != 0 ? 32 : 0);
+            }
+        }
+        return Math.min(length, size);
+    }
+
+    private static boolean startsWith(FileChannel channel, long position, String magic) throws IOException {
+        ByteBuffer bytes = read(channel, position, magic.length());
+        for (int i = 0; i < magic.length(); i++) {
+            if (bytes.get(i) != magic.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
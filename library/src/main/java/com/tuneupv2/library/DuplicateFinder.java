@@ -0,0 +1,236 @@
+package com.tuneupv2.library;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Background duplicate pass: every file gets an AudioHash, and songs with the same hash are copies of
+// one track. Hashes are kept in the library index next to the metadata, so a later pass only hashes
+// the files that are new or changed since the last one.
+public class DuplicateFinder {
+    private static final Logger LOG = Logger.getLogger(DuplicateFinder.class.getName());
+    private static final Metrics.Counter FILES_HASHED = Metrics.counter("dedup.filesHashed");
+    private static final Metrics.Counter MB_HASHED = Metrics.counter("dedup.hashedMB");
+    private static final Metrics.Histogram PASS_MILLIS = Metrics.histogram("dedup.passMillis");
+    private static volatile long duplicateFiles; // Of the last pass
+
+    static {
+        Metrics.gauge("dedup.duplicateFiles", () -> duplicateFiles);
+    }
+
+    private final LibraryIndex index;
+    private final ExecutorService workers;
+    private final ExecutorService coordinator;
+    private AtomicBoolean current; // Stop flag of the running pass
+
+    // Result of one pass: the content hash of every song and the groups of songs sharing one
+    public static class Report {
+        private final List<Song> songs;
+        private final long[] hashes; // 0 where the file could not be read
+        private final List<List<Song>> groups = new ArrayList<>();
+        private final int hashedCount;
+        private final int failedCount;
+        private final long elapsedMillis;
+
+        private Report(List<Song> songs, long[] hashes, int hashedCount, int failedCount, long elapsedMillis) {
+            this.songs = songs;
+            this.hashes = hashes;
+            this.hashedCount = hashedCount;
+            this.failedCount = failedCount;
+            this.elapsedMillis = elapsedMillis;
+            // A file listed twice, e.g. in a playlist, is not a duplicate of itself
+            Map<Long, List<Song>> byHash = new LinkedHashMap<>();
+            Set<String> urls = new HashSet<>();
+            for (int i = 0; i < songs.size(); i++) {
+                Song song = songs.get(i);
+                if (hashes[i] != 0 && urls.add(song.getUrl())) {
+                    byHash.computeIfAbsent(hashes[i], key -> new ArrayList<>(1)).add(song);
+                }
+            }
+            for (List<Song> group : byHash.values()) {
+                if (group.size() > 1) {
+                    groups.add(group);
+                }
+            }
+        }
+
+        // Songs with the same audio, in the order they appear in the song list
+        public List<List<Song>> getGroups() {
+            return groups;
+        }
+
+        // Files that are a copy of an earlier one
+        public int getDuplicateCount() {
+            int count = 0;
+            for (List<Song> group : groups) {
+                count += group.size() - 1;
+            }
+            return count;
+        }
+
+        public int getHashedCount() {
+            return hashedCount;
+        }
+
+        public int getFailedCount() {
+            return failedCount;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        // Gives every hashed song its content based id, call on the thread that owns the songs
+        public void applyTrackIds() {
+            for (int i = 0; i < songs.size(); i++) {
+                if (hashes[i] != 0) {
+                    songs.get(i).setId(AudioHash.trackId(hashes[i]));
+                }
+            }
+        }
+
+        // One block per track id with the paths of its copies
+        public void write(Path file) throws IOException {
+            try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                writer.write("# TuneupV2 duplicates " + LocalDateTime.now() + System.lineSeparator());
+                writer.write("# " + groups.size() + " tracks with copies, " + getDuplicateCount() + " duplicate files"
+                        + System.lineSeparator());
+                for (List<Song> group : groups) {
+                    Song first = group.get(0);
+                    writer.write(System.lineSeparator() + first.getId() + " " + nullToEmpty(first.getArtistName())
+                            + " - " + nullToEmpty(first.getSongName()) + System.lineSeparator());
+                    for (Song song : group) {
+                        writer.write("  " + Paths.get(URI.create(song.getUrl())) + System.lineSeparator());
+                    }
+                }
+            }
+        }
+    }
+
+    public DuplicateFinder(LibraryIndex index, int threads) {
+        this.index = index;
+        AtomicInteger counter = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+            Thread thread = new Thread(runnable, "duplicate-finder-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY); // Hashing reads every file, playback comes first
+            return thread;
+        });
+        coordinator = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "duplicate-finder-coordinator");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Starts a pass over the songs in the background, cancelling a pass that is still running. The
+    // report goes to onFinished on the coordinator thread; cancelled passes do not report.
+    public synchronized void find(List<Song> songs, Consumer<Report> onFinished) {
+        cancel();
+        AtomicBoolean stop = new AtomicBoolean();
+        current = stop;
+        coordinator.execute(() -> {
+            Report report = run(songs, stop);
+            if (report != null) {
+                onFinished.accept(report);
+            }
+        });
+    }
+
+    public synchronized void cancel() {
+        if (current != null) {
+            current.set(true);
+            current = null;
+        }
+    }
+
+    public void shutdown() {
+        cancel();
+        workers.shutdownNow();
+        coordinator.shutdownNow();
+    }
+
+    // Hashes the songs on all workers and groups them, null if the pass was stopped
+    public Report run(List<Song> songs, AtomicBoolean stop) {
+        long start = System.nanoTime();
+        long[] hashes = new long[songs.size()];
+        AtomicInteger hashed = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        List<Future<?>> pending = new ArrayList<>();
+        for (int i = 0; i < songs.size(); i++) {
+            File file = new File(URI.create(songs.get(i).getUrl()));
+            LibraryIndex.Entry entry = index.lookup(file);
+            if (entry != null && entry.getContentHash() != 0) {
+                hashes[i] = entry.getContentHash();
+                continue;
+            }
+            int position = i;
+            pending.add(workers.submit(() -> {
+                if (stop.get()) {
+                    return;
+                }
+                try {
+                    long hash = AudioHash.hash(file.toPath());
+                    hashes[position] = hash;
+                    hashed.incrementAndGet();
+                    FILES_HASHED.increment();
+                    MB_HASHED.add(file.length() >> 20);
+                    // Files that are not in the index, e.g. unreadable tags, are hashed again next time
+                    if (entry != null) {
+                        index.update(file, stored -> stored.withContentHash(hash));
+                    }
+                } catch (IOException | RuntimeException e) {
+                    LOG.log(Level.FINE, "Could not hash " + file, e);
+                    failed.incrementAndGet();
+                }
+            }));
+        }
+        try {
+            for (Future<?> future : pending) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stop.set(true);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+        if (stop.get()) {
+            return null;
+        }
+        index.save();
+
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        Report report = new Report(songs, hashes, hashed.get(), failed.get(), millis);
+        PASS_MILLIS.record(millis);
+        duplicateFiles = report.getDuplicateCount();
+        LOG.info("Duplicate pass over " + songs.size() + " songs hashed " + hashed.get() + " files in " + millis
+                + " ms, " + report.getDuplicateCount() + " duplicate files in " + report.getGroups().size() + " groups");
+        return report;
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
@@ -0,0 +1,268 @@
+package com.tuneupv2.library;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Persistent metadata index, so that files whose size and modification time did not change
+// are not parsed again with jaudiotagger
+public class LibraryIndex {
+    private static final Logger LOG = Logger.getLogger(LibraryIndex.class.getName());
+    private static final int MAGIC = 0x54554958; // "TUIX"
+    private static final int VERSION = 4;
+
+    public static class Entry {
+        private final String path;
+        private final long size;
+        private final long lastModified;
+        private final String songName;
+        private final String artistName;
+        private final String album;
+        private final int length;
+        private final long artworkHash;
+        private final long contentHash; // AudioHash of the file, 0 until the duplicate pass hashed it
+        private final float trackGain; // ReplayGain in dB from the tags or the loudness analysis, NaN if unknown
+
+        public Entry(String path, long size, long lastModified, String songName, String artistName,
+                     String album, int length, long artworkHash) {
+            this(path, size, lastModified, songName, artistName, album, length, artworkHash, 0, Float.NaN);
+        }
+
+        public Entry(String path, long size, long lastModified, String songName, String artistName,
+                     String album, int length, long artworkHash, long contentHash, float trackGain) {
+            this.path = path;
+            this.size = size;
+            this.lastModified = lastModified;
+            this.songName = songName;
+            this.artistName = artistName;
+            this.album = album;
+            this.length = length;
+            this.artworkHash = artworkHash;
+            this.contentHash = contentHash;
+            this.trackGain = trackGain;
+        }
+
+        public Entry withContentHash(long hash) {
+            return new Entry(path, size, lastModified, songName, artistName, album, length, artworkHash, hash, trackGain);
+        }
+
+        public Entry withTrackGain(float gain) {
+            return new Entry(path, size, lastModified, songName, artistName, album, length, artworkHash, contentHash, gain);
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        public String getSongName() {
+            return songName;
+        }
+
+        public String getArtistName() {
+            return artistName;
+        }
+
+        public String getAlbum() {
+            return album;
+        }
+
+        public int getLength() {
+            return length;
+        }
+
+        public long getArtworkHash() {
+            return artworkHash;
+        }
+
+        public long getContentHash() {
+            return contentHash;
+        }
+
+        public float getTrackGain() {
+            return trackGain;
+        }
+    }
+
+    // Timings of the last cold (mostly parsed) and warm (mostly from the index) scan of a folder
+    public static class ScanTimes {
+        private long coldMillis = -1;
+        private long warmMillis = -1;
+
+        public long getColdMillis() {
+            return coldMillis;
+        }
+
+        public long getWarmMillis() {
+            return warmMillis;
+        }
+    }
+
+    private final Path file;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, ScanTimes> scanTimes = new ConcurrentHashMap<>();
+    private volatile boolean dirty;
+
+    public LibraryIndex(Path file) {
+        this.file = file;
+    }
+
+    // An index that is never loaded or saved, for cold scans that must not touch the real one
+    public static LibraryIndex inMemory() {
+        return new LibraryIndex(null);
+    }
+
+    public static Path defaultLocation() {
+        return Paths.get(System.getProperty("user.home"), ".tuneupv2", "library.idx");
+    }
+
+    // Returns the stored entry if the file did not change since it was indexed, otherwise null
+    public Entry lookup(File audioFile) {
+        Entry entry = entries.get(audioFile.getAbsolutePath());
+        if (entry != null && entry.size == audioFile.length() && entry.lastModified == audioFile.lastModified()) {
+            return entry;
+        }
+        return null;
+    }
+
+    public void put(Entry entry) {
+        entries.put(entry.path, entry);
+        dirty = true;
+    }
+
+    // Replaces the stored entry of a file atomically, so passes adding different fields do not undo each other
+    public void update(File audioFile, UnaryOperator<Entry> change) {
+        if (entries.computeIfPresent(audioFile.getAbsolutePath(), (path, entry) -> change.apply(entry)) != null) {
+            dirty = true;
+        }
+    }
+
+    // Removes the entry of a deleted file, or of every file below a deleted folder
+    public void remove(Path path) {
+        String removed = path.toAbsolutePath().toString();
+        String prefix = removed + File.separator;
+        if (entries.remove(removed) == null) {
+            entries.keySet().removeIf(key -> key.startsWith(prefix));
+        }
+        dirty = true;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public void recordScan(File root, long millis, boolean cold) {
+        ScanTimes times = scanTimes.computeIfAbsent(root.getAbsolutePath(), key -> new ScanTimes());
+        if (cold) {
+            times.coldMillis = millis;
+        } else {
+            times.warmMillis = millis;
+        }
+        dirty = true;
+    }
+
+    public ScanTimes getScanTimes(File root) {
+        return scanTimes.getOrDefault(root.getAbsolutePath(), new ScanTimes());
+    }
+
+    public synchronized void load() {
+        entries.clear();
+        scanTimes.clear();
+        if (file == null || !Files.exists(file)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return; // Unknown format, start with an empty index
+            }
+            int rootCount = in.readInt();
+            for (int i = 0; i < rootCount; i++) {
+                String root = in.readUTF();
+                ScanTimes times = new ScanTimes();
+                times.coldMillis = in.readLong();
+                times.warmMillis = in.readLong();
+                scanTimes.put(root, times);
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                Entry entry = new Entry(in.readUTF(), in.readLong(), in.readLong(), in.readUTF(), in.readUTF(),
+                        in.readUTF(), in.readInt(), in.readLong(), in.readLong(), in.readFloat());
+                entries.put(entry.path, entry);
+            }
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Could not read the library index " + file + ", starting empty", e);
+            entries.clear();
+            scanTimes.clear();
+        }
+        dirty = false;
+    }
+
+    public synchronized void save() {
+        if (!dirty || file == null) {
+            return;
+        }
+        // Cleared before the entries are copied, so a put() from a scan or watcher thread during the
+        // write marks the index dirty again instead of being lost. The copies also keep the written
+        // counts in line with the entries that follow them.
+        dirty = false;
+        List<Map.Entry<String, ScanTimes>> times = new ArrayList<>(scanTimes.entrySet());
+        List<Entry> snapshot = new ArrayList<>(entries.values());
+        try {
+            Files.createDirectories(file.getParent());
+            // Write to a temporary file first so a crash never leaves a half written index
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(times.size());
+                for (Map.Entry<String, ScanTimes> root : times) {
+                    out.writeUTF(root.getKey());
+                    out.writeLong(root.getValue().coldMillis);
+                    out.writeLong(root.getValue().warmMillis);
+                }
+                out.writeInt(snapshot.size());
+                for (Entry entry : snapshot) {
+                    out.writeUTF(entry.path);
+                    out.writeLong(entry.size);
+                    out.writeLong(entry.lastModified);
+                    out.writeUTF(nullToEmpty(entry.songName));
+                    out.writeUTF(nullToEmpty(entry.artistName));
+                    out.writeUTF(nullToEmpty(entry.album));
+                    out.writeInt(entry.length);
+                    out.writeLong(entry.artworkHash);
+                    out.writeLong(entry.contentHash);
+                    out.writeFloat(entry.trackGain);
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            dirty = true;
+            LOG.log(Level.WARNING, "Could not write the library index " + file, e);
+        }
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
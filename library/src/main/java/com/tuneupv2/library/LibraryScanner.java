@@ -0,0 +1,359 @@
+package com.tuneupv2.library;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+public class LibraryScanner {
+    private static final int BATCH_SIZE = 250;
+    private static final long BATCH_INTERVAL_MS = 100;
+    private static final Logger LOG = Logger.getLogger(LibraryScanner.class.getName());
+    private static final Metrics.Counter FILES_SCANNED = Metrics.counter("scan.files");
+    private static final Metrics.Counter FILES_FAILED = Metrics.counter("scan.failedFiles");
+    private static volatile long lastFilesPerSecond;
+
+    static {
+        // The rate of the last finished scan goes down as well as up, so it is a gauge and not a counter
+        Metrics.gauge("scan.lastFilesPerSecond", () -> lastFilesPerSecond);
+    }
+
+    public interface Listener {
+        void onBatch(Scan scan, List<Song> batch);
+
+        void onProgress(Scan scan, int scanned, int total);
+
+        void onFinished(Scan scan, int scanned, boolean cancelled);
+    }
+
+    // Where the files of a scan come from: a folder walk or the entries of a playlist
+    private interface FileSource {
+        void forEach(Consumer<Path> consumer, BooleanSupplier stop) throws IOException;
+    }
+
+    // Handle for one running scan, used to cancel it and to drop results from stale scans
+    public static class Scan {
+        private final File root;
+        private volatile boolean cancelled;
+        private final AtomicInteger parsed = new AtomicInteger();
+        private final AtomicInteger cached = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final long startNanos = System.nanoTime();
+        private volatile long elapsedMillis = -1;
+
+        private Scan(File root) {
+            this.root = root;
+        }
+
+        public File getRoot() {
+            return root;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        // Number of files parsed with jaudiotagger
+        public int getParsedCount() {
+            return parsed.get();
+        }
+
+        // Number of files taken from the library index without parsing
+        public int getCachedCount() {
+            return cached.get();
+        }
+
+        // Number of files that could not be read
+        public int getFailedCount() {
+            return failed.get();
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        // Queued files of a cancelled scan are skipped by the workers without being read
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+
+    private final ExecutorService workers;
+    private final ExecutorService coordinator;
+    private final LibraryIndex index;
+    private final MetadataExtractor extractor = new MetadataExtractor();
+    private final LibraryWalker walker;
+    private final int maxInFlight;
+    private volatile boolean saveIndex = true;
+    private Scan current;
+
+    public LibraryScanner(LibraryIndex index, boolean followSymlinks) {
+        this(index, followSymlinks, Runtime.getRuntime().availableProcessors());
+    }
+
+    public LibraryScanner(LibraryIndex index, boolean followSymlinks, int threads) {
+        this.index = index;
+        this.walker = new LibraryWalker(followSymlinks);
+        this.maxInFlight = Math.max(1, threads) * 64;
+        AtomicInteger counter = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+            Thread thread = new Thread(runnable, "library-scanner-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        });
+        coordinator = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "library-scanner-coordinator");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Whether the index is saved after every scan; batch runs turn it off and save once at the end
+    public void setSaveIndex(boolean saveIndex) {
+        this.saveIndex = saveIndex;
+    }
+
+    // Starts scanning the folder in the background, cancelling any scan that is still running
+    public synchronized Scan scan(File folder, Listener listener) {
+        return start(folder, (consumer, stop) -> walker.walk(folder.toPath(), consumer, stop), false, listener);
+    }
+
+    // Reads the songs of a playlist while the playlist file is still being read. Entries in the library
+    // index come from it, the others are parsed on the workers, and batches keep the playlist's order.
+    public synchronized Scan importPlaylist(File playlist, Listener listener) {
+        return start(playlist, (consumer, stop) -> PlaylistFile.read(playlist.toPath(), consumer, stop), true, listener);
+    }
+
+    private Scan start(File root, FileSource source, boolean playlist, Listener listener) {
+        cancel();
+        Scan scan = new Scan(root);
+        current = scan;
+        coordinator.execute(() -> run(scan, source, playlist, listener));
+        return scan;
+    }
+
+    // Returns true if a running scan was cancelled
+    public synchronized boolean cancel() {
+        if (current == null) {
+            return false;
+        }
+        current.cancel();
+        current = null;
+        return true;
+    }
+
+    public void shutdown() {
+        cancel();
+        workers.shutdownNow();
+        coordinator.shutdownNow();
+    }
+
+    private void run(Scan scan, FileSource source, boolean playlist, Listener listener) {
+        File folder = scan.getRoot();
+        ScanRun run = new ScanRun(scan, listener, playlist);
+        listener.onProgress(scan, 0, 0);
+        try {
+            // Files are handed to the workers while the tree or playlist is still being read
+            source.forEach(run::submit, scan::isCancelled);
+            while (run.scanned < run.found && !scan.isCancelled()) {
+                run.collect(BATCH_INTERVAL_MS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            scan.cancel();
+        } catch (IOException | UncheckedIOException e) {
+            LOG.log(Level.WARNING, "Scan of " + folder + " failed", e);
+        } catch (CancellationException e) {
+            // Interrupted while submitting, the scan was cancelled
+        }
+
+        if (!scan.isCancelled()) {
+            run.flush();
+        }
+        synchronized (this) {
+            if (current == scan) {
+                current = null;
+            }
+        }
+        scan.elapsedMillis = (System.nanoTime() - scan.startNanos) / 1_000_000;
+        FILES_SCANNED.add(run.scanned);
+        if (!scan.isCancelled() && !playlist) {
+            index.recordScan(folder, scan.elapsedMillis, scan.getParsedCount() > scan.getCachedCount());
+            lastFilesPerSecond = run.scanned * 1000L / Math.max(1, scan.elapsedMillis);
+        }
+        if (scan.getFailedCount() > 0) {
+            LOG.info(scan.getFailedCount() + " of " + run.scanned + " files in " + folder + " could not be read");
+        }
+        if (saveIndex) {
+            index.save();
+        }
+        listener.onFinished(scan, run.scanned, scan.isCancelled());
+    }
+
+    // State of one scan on the coordinator thread: submitted files, finished songs and the pending batch
+    private class ScanRun {
+        private final Scan scan;
+        private final Listener listener;
+        private final CompletionService<Song> completion = new ExecutorCompletionService<>(workers);
+        // Submitted files in submission order when the order has to be kept, null otherwise
+        private final ArrayDeque<Future<Song>> ordered;
+        private final List<Song> batch = new ArrayList<>();
+        private int found;
+        private int scanned;
+        private long lastFlush = System.currentTimeMillis();
+
+        private ScanRun(Scan scan, Listener listener, boolean keepOrder) {
+            this.scan = scan;
+            this.listener = listener;
+            this.ordered = keepOrder ? new ArrayDeque<>() : null;
+        }
+
+        private void submit(Path path) {
+            try {
+                // Keep the number of queued files bounded, so huge trees are never held in memory at once
+                while (found - scanned >= maxInFlight && !scan.isCancelled()) {
+                    collect(BATCH_INTERVAL_MS);
+                }
+                // Collect whatever finished meanwhile so batches keep flowing while walking
+                while (collect(0)) {
+                    // keep draining
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                scan.cancel();
+                throw new CancellationException();
+            }
+            File file = path.toFile();
+            if (ordered != null) {
+                ordered.addLast(workers.submit(() -> scan.isCancelled() ? null : readSong(scan, file)));
+            } else {
+                completion.submit(() -> scan.isCancelled() ? null : readSong(scan, file));
+            }
+            found++;
+        }
+
+        // Waits up to timeoutMs for the next finished file, returns false if none finished
+        private boolean collect(long timeoutMs) throws InterruptedException {
+            Future<Song> future = ordered != null ? nextInOrder(timeoutMs) : completion.poll(timeoutMs, TimeUnit.MILLISECONDS);
+            if (future != null) {
+                scanned++;
+                Song song = getQuietly(future);
+                if (song != null) {
+                    batch.add(song);
+                }
+            }
+            long now = System.currentTimeMillis();
+            if (batch.size() >= BATCH_SIZE || now - lastFlush >= BATCH_INTERVAL_MS) {
+                flush();
+                lastFlush = now;
+            }
+            return future != null;
+        }
+
+        // The oldest submitted file once it is finished, so one slow file holds back the ones after it
+        private Future<Song> nextInOrder(long timeoutMs) throws InterruptedException {
+            Future<Song> head = ordered.peekFirst();
+            if (head == null) {
+                return null;
+            }
+            try {
+                head.get(timeoutMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                return null;
+            } catch (ExecutionException | CancellationException e) {
+                // Finished with a failure, skipped in collect
+            }
+            return ordered.pollFirst();
+        }
+
+        private void flush() {
+            if (!batch.isEmpty()) {
+                listener.onBatch(scan, new ArrayList<>(batch));
+                batch.clear();
+            }
+            listener.onProgress(scan, scanned, found);
+        }
+    }
+
+    private Song getQuietly(Future<Song> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            throw e;
+        } catch (Exception e) {
+            // Cancelled or failed files are simply skipped
+            return null;
+        }
+    }
+
+    // Reads a single file outside of a folder scan, e.g. for watch mode updates
+    public Song read(File file) {
+        return readSong(null, file);
+    }
+
+    private Song readSong(Scan scan, File file) {
+        LibraryIndex.Entry entry = index.lookup(file);
+        if (entry != null) {
+            if (scan != null) {
+                scan.cached.incrementAndGet();
+            }
+        } else {
+            try {
+                TrackMetadata metadata = extractor.extract(file);
+                // Only the hash of the cover is kept, the image itself is decoded lazily by AlbumArtCache
+                entry = new LibraryIndex.Entry(file.getAbsolutePath(), file.length(), file.lastModified(),
+                        metadata.getSongName(), metadata.getArtistName(), metadata.getAlbum(),
+                        metadata.getLength(), metadata.getArtworkHash(), 0, metadata.getTrackGain());
+            } catch (Exception e) {
+                // Bad files are counted and summarized after the scan, details only at FINE level
+                LOG.log(Level.FINE, "Could not read " + file, e);
+                FILES_FAILED.increment();
+                if (scan != null) {
+                    scan.failed.incrementAndGet();
+                }
+                return null;
+            }
+            if (scan != null) {
+                scan.parsed.incrementAndGet();
+            }
+            index.put(entry);
+        }
+
+        Song song = new Song(
+                // Content based id once the duplicate pass hashed the file, the file name until then
+                entry.getContentHash() != 0 ? AudioHash.trackId(entry.getContentHash()) : file.getName(),
+                entry.getArtistName(),
+                entry.getSongName(),
+                entry.getLength(),
+                entry.getAlbum(),
+                file.toURI().toString(),
+                entry.getArtworkHash()
+        );
+        song.setTrackGain(entry.getTrackGain());
+        // Sort keys are computed here on the worker threads rather than on the FX thread at the first sort
+        SortKeys.prepare(song);
+        return song;
+    }
+
+    public MetadataExtractor getExtractor() {
+        return extractor;
+    }
+}
@@ -0,0 +1,68 @@
+package com.tuneupv2.library;
+
+import java.io.IOException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.logging.Logger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+// Walks a folder tree recursively and streams every supported audio file to a consumer,
+// without building the whole file list in memory first
+public class LibraryWalker {
+    private static final Logger LOG = Logger.getLogger(LibraryWalker.class.getName());
+    // Files JavaFX Media can play that jaudiotagger can also read tags from. jaudiotagger knows many more,
+    // such as flac, ogg and wma, but songs the player cannot open are not worth listing.
+    private static final Set<String> EXTENSIONS = Set.of("mp3", "m4a", "mp4", "wav", "aif", "aiff");
+
+    private final boolean followSymlinks;
+
+    public LibraryWalker(boolean followSymlinks) {
+        this.followSymlinks = followSymlinks;
+    }
+
+    public static boolean isSupported(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot > 0 && EXTENSIONS.contains(name.substring(dot + 1).toLowerCase(Locale.ROOT));
+    }
+
+    // Visits the tree until done or until stop returns true
+    public void walk(Path root, Consumer<Path> consumer, BooleanSupplier stop) throws IOException {
+        Set<FileVisitOption> options = followSymlinks
+                ? EnumSet.of(FileVisitOption.FOLLOW_LINKS)
+                : EnumSet.noneOf(FileVisitOption.class);
+        Files.walkFileTree(root, options, Integer.MAX_VALUE, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                return stop.getAsBoolean() ? FileVisitResult.TERMINATE : FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (stop.getAsBoolean()) {
+                    return FileVisitResult.TERMINATE;
+                }
+                // Without FOLLOW_LINKS symlinks are reported as links and skipped here
+                if (attrs.isRegularFile() && isSupported(file)) {
+                    consumer.accept(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                // Unreadable folders and symlink loops are skipped, the rest of the tree is still scanned
+                LOG.warning("Skipping " + file + ": " + e);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
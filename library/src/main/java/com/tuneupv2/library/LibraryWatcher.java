@@ -0,0 +1,167 @@
+package com.tuneupv2.library;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Watches a loaded folder tree and reports only the files that were created, modified or deleted,
+// so the library can be updated incrementally instead of being rescanned
+public class LibraryWatcher {
+    private static final Logger LOG = Logger.getLogger(LibraryWatcher.class.getName());
+    private static final long DEBOUNCE_MS = 500;
+
+    public interface Listener {
+        // Songs that were added or changed, and the urls of removed files or folders
+        void onChanges(List<Song> changed, List<String> removedUrls);
+    }
+
+    private final LibraryScanner scanner;
+    private final LibraryIndex index;
+    // Same symlink handling as the scan that loaded the folder
+    private final boolean followSymlinks;
+    private final LibraryWalker walker;
+    private final Map<WatchKey, Path> keys = new ConcurrentHashMap<>();
+    private WatchService watchService;
+
+    public LibraryWatcher(LibraryScanner scanner, LibraryIndex index, boolean followSymlinks) {
+        this.scanner = scanner;
+        this.index = index;
+        this.followSymlinks = followSymlinks;
+        this.walker = new LibraryWalker(followSymlinks);
+    }
+
+    public synchronized void start(Path root, Listener listener) throws IOException {
+        stop();
+        WatchService service = root.getFileSystem().newWatchService();
+        watchService = service;
+        registerTree(service, root);
+        Thread thread = new Thread(() -> run(service, root, listener), "library-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public synchronized void stop() {
+        if (watchService != null) {
+            try {
+                watchService.close(); // Ends the watcher thread
+            } catch (IOException e) {
+                LOG.log(Level.WARNING, "Could not close the folder watcher", e);
+            }
+            watchService = null;
+            keys.clear();
+        }
+    }
+
+    public synchronized boolean isRunning() {
+        return watchService != null;
+    }
+
+    private void run(WatchService service, Path root, Listener listener) {
+        Set<Path> pending = new LinkedHashSet<>();
+        try {
+            while (true) {
+                // Wait for the first event, then keep collecting until nothing happened for DEBOUNCE_MS
+                WatchKey key = pending.isEmpty() ? service.take() : service.poll(DEBOUNCE_MS, TimeUnit.MILLISECONDS);
+                if (key == null) {
+                    apply(service, pending, listener);
+                    pending.clear();
+                    continue;
+                }
+                Path dir = keys.get(key);
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        // Events were lost, re-read the whole tree (unchanged files come from the index)
+                        pending.add(root);
+                    } else if (dir != null) {
+                        pending.add(dir.resolve((Path) event.context()));
+                    }
+                }
+                if (!key.reset()) {
+                    keys.remove(key);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // Watching was stopped
+        }
+    }
+
+    private void apply(WatchService service, Set<Path> paths, Listener listener) {
+        List<Song> changed = new ArrayList<>();
+        List<String> removedUrls = new ArrayList<>();
+        for (Path path : paths) {
+            if (Files.isDirectory(path)) {
+                // New or moved in folder: watch it and read everything below it
+                try {
+                    registerTree(service, path);
+                    walker.walk(path, file -> addSong(file, changed), () -> false);
+                } catch (IOException | ClosedWatchServiceException e) {
+                    LOG.log(Level.WARNING, "Could not watch new folder " + path, e);
+                }
+            } else if (Files.isRegularFile(path)) {
+                if (LibraryWalker.isSupported(path)) {
+                    addSong(path, changed);
+                }
+            } else {
+                index.remove(path);
+                removedUrls.add(path.toFile().toURI().toString());
+            }
+        }
+        index.save();
+        if (!changed.isEmpty() || !removedUrls.isEmpty()) {
+            listener.onChanges(changed, removedUrls);
+        }
+    }
+
+    private void addSong(Path path, List<Song> changed) {
+        Song song = scanner.read(path.toFile());
+        if (song != null) {
+            changed.add(song);
+        }
+    }
+
+    private void registerTree(WatchService service, Path root) throws IOException {
+        Set<FileVisitOption> options = followSymlinks
+                ? EnumSet.of(FileVisitOption.FOLLOW_LINKS)
+                : EnumSet.noneOf(FileVisitOption.class);
+        Files.walkFileTree(root, options, Integer.MAX_VALUE, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                WatchKey key = dir.register(service, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+                keys.put(key, dir);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    // True if the song url is the removed file itself or lies below a removed folder
+    public static boolean isRemoved(String songUrl, String removedUrl) {
+        return songUrl.equals(removedUrl) || songUrl.startsWith(removedUrl.endsWith("/") ? removedUrl : removedUrl + "/");
+    }
+}
@@ -0,0 +1,295 @@
+package com.tuneupv2.library;
+
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Background loudness pass for songs without a ReplayGain tag. Files Java Sound can decode (WAV, AIFF,
+// AU) are measured as integrated loudness per ITU-R BS.1770 and get the gain to the ReplayGain 2.0
+// reference of -18 LUFS; the JDK has no decoder for compressed formats, so those keep an unknown gain
+// unless they are tagged. Measured gains are stored in the library index next to the metadata.
+public class LoudnessAnalyzer {
+    private static final Logger LOG = Logger.getLogger(LoudnessAnalyzer.class.getName());
+    private static final Metrics.Counter FILES_ANALYZED = Metrics.counter("loudness.filesAnalyzed");
+    private static final Metrics.Histogram ANALYZE_MILLIS = Metrics.histogram("loudness.analyzeMillis");
+    private static final double REFERENCE_LUFS = -18;
+    private static final double MAX_GAIN_DB = 24;
+
+    private final LibraryIndex index;
+    private final ExecutorService workers;
+    private final ExecutorService coordinator;
+    // Every worker keeps its read buffer and block list from one file to the next
+    private final ThreadLocal<Meter> meters = ThreadLocal.withInitial(Meter::new);
+    private AtomicBoolean current; // Stop flag of the running pass
+
+    // Gains found by one pass, applied to the songs on the thread that owns them
+    public static class Report {
+        private final List<Song> songs;
+        private final float[] gains; // NaN where nothing was found
+        private final int analyzedCount;
+
+        private Report(List<Song> songs, float[] gains, int analyzedCount) {
+            this.songs = songs;
+            this.gains = gains;
+            this.analyzedCount = analyzedCount;
+        }
+
+        public int getAnalyzedCount() {
+            return analyzedCount;
+        }
+
+        public void applyGains() {
+            for (int i = 0; i < songs.size(); i++) {
+                if (!Float.isNaN(gains[i])) {
+                    songs.get(i).setTrackGain(gains[i]);
+                }
+            }
+        }
+    }
+
+    public LoudnessAnalyzer(LibraryIndex index, int threads) {
+        this.index = index;
+        AtomicInteger counter = new AtomicInteger();
+        // One core less than the scanner, so decoding never competes with playback and the FX thread
+        workers = Executors.newFixedThreadPool(Math.max(1, threads - 1), runnable -> {
+            Thread thread = new Thread(runnable, "loudness-analyzer-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        coordinator = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "loudness-analyzer-coordinator");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Volume multiplier for a song, 1 if its gain is unknown. Playback volume tops out at 1, so
+    // positive gains only lift quiet tracks when the volume is below full.
+    public static double volumeFactor(Song song) {
+        float gain = song.getTrackGain();
+        return Float.isNaN(gain) ? 1 : Math.pow(10, gain / 20.0);
+    }
+
+    // Starts a pass over the songs in the background, cancelling a pass that is still running. The
+    // report goes to onFinished on the coordinator thread; cancelled passes do not report.
+    public synchronized void analyze(List<Song> songs, Consumer<Report> onFinished) {
+        cancel();
+        AtomicBoolean stop = new AtomicBoolean();
+        current = stop;
+        coordinator.execute(() -> {
+            Report report = run(songs, stop);
+            if (report != null) {
+                onFinished.accept(report);
+            }
+        });
+    }
+
+    public synchronized void cancel() {
+        if (current != null) {
+            current.set(true);
+            current = null;
+        }
+    }
+
+    public void shutdown() {
+        cancel();
+        workers.shutdownNow();
+        coordinator.shutdownNow();
+    }
+
+    // Finds the gain of every song that has none, null if the pass was stopped
+    public Report run(List<Song> songs, AtomicBoolean stop) {
+        float[] gains = new float[songs.size()];
+        Arrays.fill(gains, Float.NaN);
+        AtomicInteger analyzed = new AtomicInteger();
+        List<Future<?>> pending = new ArrayList<>();
+        for (int i = 0; i < songs.size(); i++) {
+            if (!Float.isNaN(songs.get(i).getTrackGain())) {
+                continue;
+            }
+            File file = new File(URI.create(songs.get(i).getUrl()));
+            LibraryIndex.Entry entry = index.lookup(file);
+            if (entry != null && !Float.isNaN(entry.getTrackGain())) {
+                gains[i] = entry.getTrackGain();
+                continue;
+            }
+            if (!PcmStream.isDecodable(file)) {
+                continue;
+            }
+            int position = i;
+            pending.add(workers.submit(() -> {
+                if (stop.get()) {
+                    return;
+                }
+                long start = System.nanoTime();
+                try {
+                    double loudness = meters.get().measure(file, stop);
+                    if (Double.isFinite(loudness)) {
+                        float gain = (float) Math.max(-MAX_GAIN_DB, Math.min(MAX_GAIN_DB, REFERENCE_LUFS - loudness));
+                        gains[position] = gain;
+                        if (entry != null) {
+                            index.update(file, stored -> stored.withTrackGain(gain));
+                        }
+                    }
+                    analyzed.incrementAndGet();
+                    FILES_ANALYZED.increment();
+                    ANALYZE_MILLIS.record((System.nanoTime() - start) / 1_000_000);
+                } catch (IOException | UnsupportedAudioFileException | RuntimeException e) {
+                    LOG.log(Level.FINE, "Could not measure the loudness of " + file, e);
+                }
+            }));
+        }
+        try {
+            for (Future<?> future : pending) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stop.set(true);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+        if (stop.get()) {
+            return null;
+        }
+        if (analyzed.get() > 0) {
+            index.save();
+            LOG.info("Measured the loudness of " + analyzed.get() + " files");
+        }
+        return new Report(songs, gains, analyzed.get());
+    }
+
+    // BS.1770 meter: K-weighting, mean square per 100 ms step, 400 ms gating blocks with 75% overlap,
+    // an absolute gate at -70 LUFS and a relative gate 10 LU below the ungated mean
+    private static class Meter {
+        private final byte[] buffer = new byte[1 << 16];
+        private final double[] samples = new double[1 << 14];
+        private double[] steps = new double[4096];
+        private int stepCount;
+
+        // Integrated loudness in LUFS, -Infinity for silence or files shorter than one block
+        double measure(File file, AtomicBoolean stop) throws IOException, UnsupportedAudioFileException {
+            try (PcmStream in = new PcmStream(file, buffer)) {
+                int channels = in.getChannels();
+                double rate = in.getSampleRate();
+                double[] shelf = shelfFilter(rate);
+                double[] highPass = highPassFilter(rate);
+                double[][] state = new double[channels][8];
+                double[] weights = channelWeights(channels);
+
+                int framesPerStep = (int) Math.round(rate / 10);
+                int framesInStep = 0;
+                double sum = 0;
+                stepCount = 0;
+                int read;
+                while ((read = in.read(samples)) > 0) {
+                    if (stop.get()) {
+                        throw new CancellationException();
+                    }
+                    for (int i = 0; i < read; i += channels) {
+                        for (int c = 0; c < channels; c++) {
+                            double y = biquad(highPass, state[c], 4, biquad(shelf, state[c], 0, samples[i + c]));
+                            sum += weights[c] * y * y;
+                        }
+                        if (++framesInStep == framesPerStep) {
+                            addStep(sum / framesPerStep);
+                            sum = 0;
+                            framesInStep = 0;
+                        }
+                    }
+                }
+            }
+            return integrate();
+        }
+
+        private void addStep(double meanSquare) {
+            if (stepCount == steps.length) {
+                steps = Arrays.copyOf(steps, steps.length * 2);
+            }
+            steps[stepCount++] = meanSquare;
+        }
+
+        private double integrate() {
+            // Each gating block is the mean of four consecutive steps, computed in place
+            int blocks = stepCount - 3;
+            for (int i = 0; i < blocks; i++) {
+                steps[i] = (steps[i] + steps[i + 1] + steps[i + 2] + steps[i + 3]) / 4;
+            }
+            double absoluteGate = Math.pow(10, (-70 + 0.691) / 10);
+            double relativeGate = mean(blocks, absoluteGate) * 0.1;
+            double gated = mean(blocks, Math.max(absoluteGate, relativeGate));
+            return gated > 0 ? -0.691 + 10 * Math.log10(gated) : Double.NEGATIVE_INFINITY;
+        }
+
+        private double mean(int blocks, double gate) {
+            double sum = 0;
+            int count = 0;
+            for (int i = 0; i < blocks; i++) {
+                if (steps[i] > gate) {
+                    sum += steps[i];
+                    count++;
+                }
+            }
+            return count == 0 ? 0 : sum / count;
+        }
+    }
+
+    // Direct form I biquad over coefficients b0 b1 b2 a1 a2, state holds x1 x2 y1 y2 from offset
+    private static double biquad(double[] k, double[] state, int offset, double x) {
+        double y = k[0] * x + k[1] * state[offset] + k[2] * state[offset + 1]
+                - k[3] * state[offset + 2] - k[4] * state[offset + 3];
+        state[offset + 1] = state[offset];
+        state[offset] = x;
+        state[offset + 3] = state[offset + 2];
+        state[offset + 2] = y;
+        return y;
+    }
+
+    // First stage of the K-weighting, a +4 dB high shelf, for any sample rate
+    private static double[] shelfFilter(double rate) {
+        double k = Math.tan(Math.PI * 1681.974450955533 / rate);
+        double q = 0.7071752369554196;
+        double vh = Math.pow(10, 3.999843853973347 / 20);
+        double vb = Math.pow(vh, 0.4996667741545416);
+        double a0 = 1 + k / q + k * k;
+        return new double[]{
+                (vh + vb * k / q + k * k) / a0, 2 * (k * k - vh) / a0, (vh - vb * k / q + k * k) / a0,
+                2 * (k * k - 1) / a0, (1 - k / q + k * k) / a0};
+    }
+
+    // Second stage of the K-weighting, the RLB high pass
+    private static double[] highPassFilter(double rate) {
+        double k = Math.tan(Math.PI * 38.13547087602444 / rate);
+        double q = 0.5003270373238773;
+        double a0 = 1 + k / q + k * k;
+        return new double[]{1, -2, 1, 2 * (k * k - 1) / a0, (1 - k / q + k * k) / a0};
+    }
+
+    // BS.1770 weights for the 5.1 order L R C LFE Ls Rs, the LFE channel does not count
+    private static double[] channelWeights(int channels) {
+        double[] weights = new double[channels];
+        Arrays.fill(weights, 1);
+        if (channels >= 5) {
+            weights[3] = 0;
+            for (int c = 4; c < Math.min(6, channels); c++) {
+                weights[c] = 1.41;
+            }
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,114 @@
+package com.tuneupv2.library;
+
+import org.jaudiotagger.audio.AudioFile;
+import org.jaudiotagger.audio.AudioFileIO;
+import org.jaudiotagger.tag.FieldKey;
+import org.jaudiotagger.tag.Tag;
+import org.jaudiotagger.tag.TagField;
+import org.jaudiotagger.tag.TagTextField;
+import org.jaudiotagger.tag.id3.AbstractTagFrame;
+import org.jaudiotagger.tag.id3.framebody.FrameBodyTXXX;
+import org.jaudiotagger.tag.images.Artwork;
+
+import java.io.File;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Opens and parses each audio file exactly once and returns all fields the player needs
+public class MetadataExtractor {
+    // jaudiotagger logs a warning for every odd frame it meets; held here so the level is not lost
+    // when the logger is garbage collected
+    private static final Logger JAUDIOTAGGER_LOG = Logger.getLogger("org.jaudiotagger");
+    private static final Metrics.Histogram PARSE_MICROS = Metrics.histogram("tag.parseMicros");
+
+    static {
+        JAUDIOTAGGER_LOG.setLevel(Level.SEVERE);
+    }
+
+    private final AtomicLong filesOpened = new AtomicLong();
+
+    public TrackMetadata extract(File file) throws Exception {
+        long start = System.nanoTime();
+        AudioFile audioFile = open(file);
+        Tag tag = audioFile.getTag();
+        int length = audioFile.getAudioHeader().getTrackLength();
+        TrackMetadata metadata;
+        if (tag == null) {
+            metadata = new TrackMetadata("", "", "", length, null);
+        } else {
+            metadata = new TrackMetadata(
+                    tag.getFirst(FieldKey.TITLE),
+                    tag.getFirst(FieldKey.ARTIST),
+                    tag.getFirst(FieldKey.ALBUM),
+                    length,
+                    artworkBytes(tag),
+                    trackGain(tag)
+            );
+        }
+        PARSE_MICROS.record((System.nanoTime() - start) / 1000);
+        return metadata;
+    }
+
+    // Reads only the embedded cover, for files whose other fields come from the library index
+    public byte[] readArtwork(File file) throws Exception {
+        Tag tag = open(file).getTag();
+        return tag == null ? null : artworkBytes(tag);
+    }
+
+    // Number of files opened with jaudiotagger since the last reset
+    public long getFilesOpened() {
+        return filesOpened.get();
+    }
+
+    public void resetCounters() {
+        filesOpened.set(0);
+    }
+
+    private AudioFile open(File file) throws Exception {
+        filesOpened.incrementAndGet();
+        return AudioFileIO.read(file);
+    }
+
+    // REPLAYGAIN_TRACK_GAIN as written by ReplayGain taggers: a TXXX frame in ID3v2, a comment in
+    // Vorbis and FLAC, a ----:com.apple.iTunes:replaygain_track_gain atom in MP4
+    private static float trackGain(Tag tag) {
+        Iterator<TagField> fields = tag.getFields();
+        while (fields.hasNext()) {
+            TagField field = fields.next();
+            String value = null;
+            if (field instanceof AbstractTagFrame && ((AbstractTagFrame) field).getBody() instanceof FrameBodyTXXX) {
+                FrameBodyTXXX body = (FrameBodyTXXX) ((AbstractTagFrame) field).getBody();
+                if ("REPLAYGAIN_TRACK_GAIN".equalsIgnoreCase(body.getDescription())) {
+                    value = body.getFirstTextValue();
+                }
+            } else if (field instanceof TagTextField && field.getId().toLowerCase(Locale.ROOT).endsWith("replaygain_track_gain")) {
+                value = ((TagTextField) field).getContent();
+            }
+            if (value != null) {
+                return parseGain(value);
+            }
+        }
+        return Float.NaN;
+    }
+
+    // "-7.32 dB" to -7.32
+    private static float parseGain(String value) {
+        String number = value.trim();
+        if (number.regionMatches(true, Math.max(0, number.length() - 2), "dB", 0, 2)) {
+            number = number.substring(0, number.length() - 2).trim();
+        }
+        try {
+            return Float.parseFloat(number);
+        } catch (NumberFormatException e) {
+            return Float.NaN;
+        }
+    }
+
+    private static byte[] artworkBytes(Tag tag) {
+        Artwork artwork = tag.getFirstArtwork();
+        return artwork == null ? null : artwork.getBinaryData();
+    }
+}
@@ -0,0 +1,140 @@
+package com.tuneupv2.library;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+// Process wide counters, latency histograms and gauges, without dependencies. Recording is lock free
+// so it stays enabled on hot paths; snapshot() renders every metric for the overlay and the export.
+public final class Metrics {
+    private static final Map<String, Counter> COUNTERS = new ConcurrentSkipListMap<>();
+    private static final Map<String, Histogram> HISTOGRAMS = new ConcurrentSkipListMap<>();
+    private static final Map<String, LongSupplier> GAUGES = new ConcurrentSkipListMap<>();
+
+    static {
+        gauge("heap.usedMB", () -> heap().getUsed() >> 20);
+        gauge("heap.committedMB", () -> heap().getCommitted() >> 20);
+        gauge("heap.maxMB", () -> heap().getMax() >> 20);
+    }
+
+    // A count that only grows; values that can also go down are registered as gauges
+    public static class Counter {
+        private final AtomicLong value = new AtomicLong();
+
+        public void increment() {
+            value.incrementAndGet();
+        }
+
+        public void add(long delta) {
+            value.addAndGet(delta);
+        }
+
+        public long get() {
+            return value.get();
+        }
+    }
+
+    // Distribution of non-negative values in power of two buckets, bucket i holds values below 2^i.
+    // Percentiles are reported as the upper bound of their bucket.
+    public static class Histogram {
+        private final AtomicLongArray buckets = new AtomicLongArray(64);
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong sum = new AtomicLong();
+        private final AtomicLong max = new AtomicLong();
+
+        public void record(long value) {
+            value = Math.max(0, value);
+            buckets.incrementAndGet(64 - Long.numberOfLeadingZeros(value));
+            count.incrementAndGet();
+            sum.addAndGet(value);
+            max.accumulateAndGet(value, Math::max);
+        }
+
+        public long getCount() {
+            return count.get();
+        }
+
+        public long getMax() {
+            return max.get();
+        }
+
+        public double getMean() {
+            long n = count.get();
+            return n == 0 ? 0 : (double) sum.get() / n;
+        }
+
+        // Upper bound of the bucket holding the given percentile, 0 if nothing was recorded
+        public long percentile(double percent) {
+            long n = count.get();
+            if (n == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(n * percent / 100);
+            long seen = 0;
+            for (int i = 0; i < 64; i++) {
+                seen += buckets.get(i);
+                if (seen >= Math.max(1, rank)) {
+                    return Math.min(max.get(), i == 0 ? 0 : (1L << i) - 1);
+                }
+            }
+            return max.get();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("n=%d mean=%.0f p50=%d p90=%d p99=%d max=%d",
+                    getCount(), getMean(), percentile(50), percentile(90), percentile(99), getMax());
+        }
+    }
+
+    private Metrics() {
+    }
+
+    public static Counter counter(String name) {
+        return COUNTERS.computeIfAbsent(name, key -> new Counter());
+    }
+
+    public static Histogram histogram(String name) {
+        return HISTOGRAMS.computeIfAbsent(name, key -> new Histogram());
+    }
+
+    // Registers a value that is read when a snapshot is taken, replacing one of the same name
+    public static void gauge(String name, LongSupplier value) {
+        GAUGES.put(name, value);
+    }
+
+    // One "name value" line per metric, sorted by name within counters, gauges and histograms
+    public static List<String> snapshot() {
+        List<String> lines = new ArrayList<>();
+        COUNTERS.forEach((name, counter) -> lines.add(name + " " + counter.get()));
+        GAUGES.forEach((name, gauge) -> lines.add(name + " " + gauge.getAsLong()));
+        HISTOGRAMS.forEach((name, histogram) -> lines.add(name + " " + histogram));
+        return lines;
+    }
+
+    // Writes a snapshot to the file, replacing its contents
+    public static void export(Path file) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("# TuneupV2 metrics " + LocalDateTime.now() + System.lineSeparator());
+            for (String line : snapshot()) {
+                writer.write(line + System.lineSeparator());
+            }
+        }
+    }
+
+    private static MemoryUsage heap() {
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+    }
+}
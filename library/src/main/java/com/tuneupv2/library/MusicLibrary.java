@@ -0,0 +1,76 @@
+package com.tuneupv2.library;
+
+import java.nio.file.Path;
+
+// Entry point of the library engine: the persistent index with the scanner, folder watcher, search and
+// album indexes, duplicate finder, loudness analyzer and waveform cache built on it. It has no JavaFX dependency, so it can run in headless jobs and benchmarks.
+public class MusicLibrary {
+    private final LibraryIndex index;
+    private final LibraryScanner scanner;
+    private final LibraryWatcher watcher;
+    private final SearchIndex searchIndex = new SearchIndex();
+    private final AlbumIndex albumIndex = new AlbumIndex();
+    private final DuplicateFinder duplicateFinder;
+    private final LoudnessAnalyzer loudnessAnalyzer;
+    private final WaveformCache waveformCache;
+
+    public MusicLibrary(Path indexFile, boolean followSymlinks) {
+        this(indexFile, followSymlinks, Runtime.getRuntime().availableProcessors());
+    }
+
+    public MusicLibrary(Path indexFile, boolean followSymlinks, int scanThreads) {
+        index = new LibraryIndex(indexFile);
+        index.load();
+        scanner = new LibraryScanner(index, followSymlinks, scanThreads);
+        watcher = new LibraryWatcher(scanner, index, followSymlinks);
+        duplicateFinder = new DuplicateFinder(index, scanThreads);
+        loudnessAnalyzer = new LoudnessAnalyzer(index, scanThreads);
+        waveformCache = new WaveformCache(indexFile.resolveSibling("waveforms"));
+    }
+
+    public LibraryIndex getIndex() {
+        return index;
+    }
+
+    public LibraryScanner getScanner() {
+        return scanner;
+    }
+
+    public LibraryWatcher getWatcher() {
+        return watcher;
+    }
+
+    public SearchIndex getSearchIndex() {
+        return searchIndex;
+    }
+
+    public AlbumIndex getAlbumIndex() {
+        return albumIndex;
+    }
+
+    public DuplicateFinder getDuplicateFinder() {
+        return duplicateFinder;
+    }
+
+    public LoudnessAnalyzer getLoudnessAnalyzer() {
+        return loudnessAnalyzer;
+    }
+
+    public WaveformCache getWaveformCache() {
+        return waveformCache;
+    }
+
+    public MetadataExtractor getExtractor() {
+        return scanner.getExtractor();
+    }
+
+    // Stops watching and scanning and writes pending index changes
+    public void close() {
+        watcher.stop();
+        scanner.shutdown();
+        duplicateFinder.shutdown();
+        loudnessAnalyzer.shutdown();
+        waveformCache.shutdown();
+        index.save();
+    }
+}
@@ -0,0 +1,91 @@
+package com.tuneupv2.library;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Set;
+
+// Samples of a file Java Sound can decode (WAV, AIFF, AU) as interleaved doubles in -1..1, read in
+// chunks into buffers the caller reuses from one file to the next
+class PcmStream implements Closeable {
+    private static final Set<String> DECODABLE = Set.of("wav", "wave", "aif", "aiff", "aifc", "au", "snd");
+
+    private final AudioInputStream in;
+    private final byte[] bytes;
+    private final int channels;
+    private final int bits;
+    private final int frameSize;
+    private final boolean bigEndian;
+    private final boolean floating;
+    private final boolean unsigned;
+    private final double scale;
+
+    PcmStream(File file, byte[] buffer) throws IOException, UnsupportedAudioFileException {
+        in = AudioSystem.getAudioInputStream(file);
+        AudioFormat format = in.getFormat();
+        AudioFormat.Encoding encoding = format.getEncoding();
+        bits = format.getSampleSizeInBits();
+        boolean signed = encoding.equals(AudioFormat.Encoding.PCM_SIGNED) && bits % 8 == 0 && bits <= 32;
+        floating = encoding.equals(AudioFormat.Encoding.PCM_FLOAT) && bits == 32;
+        unsigned = encoding.equals(AudioFormat.Encoding.PCM_UNSIGNED) && bits == 8;
+        if (!signed && !floating && !unsigned) {
+            in.close();
+            throw new UnsupportedAudioFileException("Cannot decode " + format);
+        }
+        bytes = buffer;
+        channels = format.getChannels();
+        frameSize = format.getFrameSize();
+        bigEndian = format.isBigEndian();
+        scale = 1.0 / (1L << (bits - 1));
+    }
+
+    static boolean isDecodable(File file) {
+        String name = file.getName();
+        int dot = name.lastIndexOf('.');
+        return dot > 0 && DECODABLE.contains(name.substring(dot + 1).toLowerCase(Locale.ROOT));
+    }
+
+    int getChannels() {
+        return channels;
+    }
+
+    float getSampleRate() {
+        return in.getFormat().getSampleRate();
+    }
+
+    // Fills samples with whole frames, returns the number of samples read or -1 at the end
+    int read(double[] samples) throws IOException {
+        int frames = Math.min(bytes.length / frameSize, samples.length / channels);
+        int read = in.read(bytes, 0, frames * frameSize);
+        if (read <= 0) {
+            return -1;
+        }
+        int count = read / frameSize * channels;
+        int bytesPerSample = bits / 8;
+        for (int i = 0; i < count; i++) {
+            int offset = i / channels * frameSize + i % channels * bytesPerSample;
+            long raw = 0;
+            for (int b = 0; b < bytesPerSample; b++) {
+                raw = raw << 8 | (bytes[bigEndian ? offset + b : offset + bytesPerSample - 1 - b] & 0xFF);
+            }
+            if (floating) {
+                samples[i] = Float.intBitsToFloat((int) raw);
+            } else if (unsigned) {
+                samples[i] = (raw - 128) * scale;
+            } else {
+                samples[i] = (raw << (64 - bits) >> (64 - bits)) * scale;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
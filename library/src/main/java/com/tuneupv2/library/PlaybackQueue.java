@@ -0,0 +1,361 @@
+package com.tuneupv2.library;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.IntConsumer;
+
+// Play order over the indices of the song list, kept separate from the list itself so shuffling never
+// reorders the table. The shuffled order is an int permutation built lazily with Fisher-Yates: every
+// step fixes one more position. Entries are only valid for the generation that wrote them, so a new
+// shuffle reuses the arrays and costs O(1) no matter how big the library is.
+public class PlaybackQueue {
+    private static final int HISTORY_LIMIT = 1000;
+
+    private final Random random;
+    private int size;
+    private boolean shuffled;
+    // permutation[i] holds the song index at order position i when generations[i] is the current
+    // generation, otherwise position i still holds its own index
+    private int[] permutation = new int[0];
+    private int[] generations = new int[0];
+    private int generation = 1;
+    private int drawn; // Positions below drawn are fixed in the shuffled order
+    private int position = -1; // Position of the current song in the play order
+    private int current = -1;
+    private final IntDeque upNext = new IntDeque(Integer.MAX_VALUE);
+    private final IntDeque history = new IntDeque(HISTORY_LIMIT);
+
+    // Growable ring buffer of ints, dropping the oldest entries beyond its limit
+    private static class IntDeque {
+        private final int limit;
+        private int[] values = new int[16];
+        private int head;
+        private int count;
+
+        private IntDeque(int limit) {
+            this.limit = limit;
+        }
+
+        private void addLast(int value) {
+            if (count == limit) {
+                pollFirst();
+            }
+            grow();
+            values[(head + count++) % values.length] = value;
+        }
+
+        private void addFirst(int value) {
+            grow();
+            head = (head - 1 + values.length) % values.length;
+            values[head] = value;
+            count++;
+        }
+
+        private int pollFirst() {
+            int value = values[head];
+            head = (head + 1) % values.length;
+            count--;
+            return value;
+        }
+
+        private int pollLast() {
+            count--;
+            return values[(head + count) % values.length];
+        }
+
+        private int peekFirst() {
+            return values[head];
+        }
+
+        private boolean isEmpty() {
+            return count == 0;
+        }
+
+        private void clear() {
+            head = 0;
+            count = 0;
+        }
+
+        private void write(DataOutput out) throws IOException {
+            out.writeInt(count);
+            for (int i = 0; i < count; i++) {
+                out.writeInt(values[(head + i) % values.length]);
+            }
+        }
+
+        private void read(DataInput in, int size) throws IOException {
+            clear();
+            int stored = in.readInt();
+            for (int i = 0; i < stored; i++) {
+                addLast(checked(in.readInt(), 0, size - 1, "queued song"));
+            }
+        }
+
+        private void grow() {
+            if (count == values.length) {
+                int[] grown = new int[values.length * 2];
+                for (int i = 0; i < count; i++) {
+                    grown[i] = values[(head + i) % values.length];
+                }
+                values = grown;
+                head = 0;
+            }
+        }
+    }
+
+    public PlaybackQueue() {
+        this(new Random());
+    }
+
+    public PlaybackQueue(Random random) {
+        this.random = random;
+    }
+
+    // Number of songs in the list, call when songs were appended to it
+    public void setSize(int size) {
+        if (shuffled) {
+            // New songs join the part of the shuffled order that was not drawn yet
+            ensureCapacity(size);
+        }
+        this.size = size;
+    }
+
+    // Starts over after songs were removed or reordered, keeping the given song as the current one
+    public void reset(int size, int currentIndex) {
+        this.size = size;
+        upNext.clear();
+        history.clear();
+        current = currentIndex < size ? currentIndex : -1;
+        if (shuffled) {
+            startShuffle(current);
+        } else {
+            position = current;
+        }
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getCurrent() {
+        return current;
+    }
+
+    public boolean isShuffled() {
+        return shuffled;
+    }
+
+    // Starts a new shuffled order that begins with the current song, so it is not drawn again
+    public void shuffle() {
+        shuffled = true;
+        startShuffle(current);
+    }
+
+    public void setShuffled(boolean shuffled) {
+        if (shuffled) {
+            shuffle();
+        } else {
+            this.shuffled = false;
+            position = current;
+        }
+    }
+
+    // Plays the song next, before the rest of the queue
+    public void playNext(int index) {
+        upNext.addFirst(index);
+    }
+
+    // Adds the song to the end of the explicitly queued songs
+    public void enqueue(int index) {
+        upNext.addLast(index);
+    }
+
+    // Makes the song at index the current one, e.g. when it was chosen in the table
+    public void select(int index) {
+        remember();
+        current = index;
+        if (!shuffled) {
+            position = index;
+        }
+    }
+
+    // Moves to the next song and returns its index, -1 if there are no songs
+    public int next() {
+        if (size == 0) {
+            return -1;
+        }
+        remember();
+        if (!upNext.isEmpty()) {
+            current = upNext.pollFirst();
+            return current;
+        }
+        position++;
+        if (position >= size) {
+            if (shuffled) {
+                startShuffle(-1);
+            }
+            position = 0;
+        }
+        current = at(position);
+        return current;
+    }
+
+    // Index of the song next() will return, without moving there
+    public int peekNext() {
+        if (size == 0) {
+            return -1;
+        }
+        if (!upNext.isEmpty()) {
+            return upNext.peekFirst();
+        }
+        int nextPosition = position + 1;
+        if (nextPosition >= size) {
+            // A new shuffle would start here, its first song is not known yet
+            return shuffled ? -1 : 0;
+        }
+        return at(nextPosition);
+    }
+
+    // Visits every song index once in play order, drawing the rest of a shuffled order if needed
+    public void forEachInOrder(IntConsumer action) {
+        for (int i = 0; i < size; i++) {
+            action.accept(at(i));
+        }
+    }
+
+    // Goes back to the previously played song and returns its index
+    public int previous() {
+        if (size == 0) {
+            return -1;
+        }
+        if (!history.isEmpty()) {
+            if (current >= 0) {
+                upNext.addFirst(current); // next() returns to the song we came from
+            }
+            current = history.pollLast();
+            return current;
+        }
+        // Nothing played before, step back in the list order like before
+        current = current <= 0 ? size - 1 : current - 1;
+        position = shuffled ? position : current;
+        return current;
+    }
+
+    // Writes the complete state, so a restored queue continues with the same order and history.
+    // Only the drawn and swapped positions of the permutation are stored.
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(size);
+        out.writeBoolean(shuffled);
+        out.writeInt(drawn);
+        out.writeInt(position);
+        out.writeInt(current);
+        // The arrays only exist once a shuffle started, and may be shorter than size until it needs them
+        int length = Math.min(size, generations.length);
+        int stored = 0;
+        for (int i = 0; i < length; i++) {
+            if (generations[i] == generation) {
+                stored++;
+            }
+        }
+        out.writeInt(size);
+        out.writeInt(stored);
+        for (int i = 0; i < length; i++) {
+            if (generations[i] == generation) {
+                out.writeInt(i);
+                out.writeInt(permutation[i] + 1);
+            }
+        }
+        upNext.write(out);
+        history.write(out);
+    }
+
+    // Every value is checked against the size, so a damaged file fails here with an IOException
+    // instead of leaving a queue that points outside the song list
+    public static PlaybackQueue read(DataInput in) throws IOException {
+        PlaybackQueue queue = new PlaybackQueue();
+        int size = checked(in.readInt(), 0, Integer.MAX_VALUE - 8, "size");
+        queue.size = size;
+        queue.shuffled = in.readBoolean();
+        queue.drawn = checked(in.readInt(), 0, size, "drawn count");
+        queue.position = checked(in.readInt(), -1, size - 1, "position");
+        queue.current = checked(in.readInt(), -1, size - 1, "current song");
+        int length = checked(in.readInt(), 0, size, "permutation length");
+        int stored = checked(in.readInt(), 0, length, "permutation entries");
+        for (int i = 0; i < stored; i++) {
+            int orderPosition = checked(in.readInt(), 0, length - 1, "order position");
+            // Grown with the entries actually read, never to a size taken from the file up front
+            queue.ensureCapacity(orderPosition + 1);
+            queue.set(orderPosition, checked(in.readInt() - 1, 0, size - 1, "shuffled song"));
+        }
+        queue.upNext.read(in, size);
+        queue.history.read(in, size);
+        return queue;
+    }
+
+    private static int checked(int value, int min, int max, String what) throws IOException {
+        if (value < min || value > max) {
+            throw new IOException("Invalid " + what + " " + value + " in the stored queue");
+        }
+        return value;
+    }
+
+    private void remember() {
+        if (current >= 0) {
+            history.addLast(current);
+        }
+    }
+
+    // Starts a new order, with the given song fixed at its first position if it is not -1
+    private void startShuffle(int first) {
+        ensureCapacity(size);
+        // Moving to the next generation invalidates every stored entry without touching the arrays
+        if (++generation == Integer.MAX_VALUE) {
+            Arrays.fill(generations, 0);
+            generation = 1;
+        }
+        drawn = 0;
+        position = -1;
+        if (first >= 0 && first < size) {
+            set(first, 0);
+            set(0, first);
+            drawn = 1;
+            position = 0;
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > permutation.length) {
+            int grown = Math.max(capacity, permutation.length * 2);
+            permutation = Arrays.copyOf(permutation, grown);
+            generations = Arrays.copyOf(generations, grown);
+        }
+    }
+
+    // Song index at an order position, drawing positions lazily with Fisher-Yates
+    private int at(int orderPosition) {
+        if (!shuffled) {
+            return orderPosition;
+        }
+        ensureCapacity(size);
+        while (drawn <= orderPosition) {
+            int swap = drawn + random.nextInt(size - drawn);
+            int drawnValue = valueAt(swap);
+            set(swap, valueAt(drawn));
+            set(drawn, drawnValue);
+            drawn++;
+        }
+        return valueAt(orderPosition);
+    }
+
+    private int valueAt(int orderPosition) {
+        return generations[orderPosition] == generation ? permutation[orderPosition] : orderPosition;
+    }
+
+    private void set(int orderPosition, int songIndex) {
+        permutation[orderPosition] = songIndex;
+        generations[orderPosition] = generation;
+    }
+}
@@ -0,0 +1,141 @@
+package com.tuneupv2.library;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+// M3U, M3U8 and PLS playlists, read and written one line at a time so playlists of any length never
+// have to fit in memory. The format follows the file extension; M3U is treated as UTF-8 like M3U8,
+// as current players write it. Relative entries are resolved against the playlist's folder, stream
+// URLs and unsupported files are skipped.
+public final class PlaylistFile {
+    private PlaylistFile() {
+    }
+
+    public static boolean isPlaylist(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        return name.endsWith(".m3u") || name.endsWith(".m3u8") || name.endsWith(".pls");
+    }
+
+    // Passes the audio file of every entry to the consumer, in playlist order
+    public static void read(Path playlist, Consumer<Path> consumer, BooleanSupplier stop) throws IOException {
+        boolean pls = isPls(playlist);
+        Path folder = playlist.toAbsolutePath().getParent();
+        // Undecodable bytes become replacement characters, the entry then simply is not found
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(Files.newInputStream(playlist),
+                StandardCharsets.UTF_8.newDecoder().onMalformedInput(CodingErrorAction.REPLACE)
+                        .onUnmappableCharacter(CodingErrorAction.REPLACE)), 1 << 16)) {
+            String line;
+            while ((line = reader.readLine()) != null && !stop.getAsBoolean()) {
+                String entry = pls ? plsEntry(line) : m3uEntry(line);
+                Path file = entry == null ? null : resolve(folder, entry);
+                if (file != null && LibraryWalker.isSupported(file)) {
+                    consumer.accept(file);
+                }
+            }
+        }
+    }
+
+    // Writes songs to a playlist as they are added, the file is complete once the writer is closed
+    public static class Writer implements Closeable {
+        private final BufferedWriter out;
+        private final boolean pls;
+        private int count;
+
+        public Writer(Path file) throws IOException {
+            out = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+            pls = isPls(file);
+            out.write(pls ? "[playlist]" : "#EXTM3U");
+            out.newLine();
+        }
+
+        public void add(Song song) throws IOException {
+            count++;
+            String path = Paths.get(URI.create(song.getUrl())).toString();
+            String title = nullToEmpty(song.getArtistName()) + " - " + nullToEmpty(song.getSongName());
+            if (pls) {
+                out.write("File" + count + "=" + path);
+                out.newLine();
+                out.write("Title" + count + "=" + title);
+                out.newLine();
+                out.write("Length" + count + "=" + song.getDuration());
+            } else {
+                out.write("#EXTINF:" + song.getDuration() + "," + title);
+                out.newLine();
+                out.write(path);
+            }
+            out.newLine();
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                if (pls) {
+                    // The entry count is only known at the end, PLS readers accept it there
+                    out.write("NumberOfEntries=" + count);
+                    out.newLine();
+                    out.write("Version=2");
+                    out.newLine();
+                }
+            } finally {
+                out.close();
+            }
+        }
+    }
+
+    private static boolean isPls(Path file) {
+        return file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".pls");
+    }
+
+    private static String m3uEntry(String line) {
+        String entry = line.strip();
+        if (entry.startsWith("\uFEFF")) {
+            entry = entry.substring(1); // Byte order mark
+        }
+        return entry.isEmpty() || entry.startsWith("#") ? null : entry;
+    }
+
+    private static String plsEntry(String line) {
+        String entry = line.strip();
+        int separator = entry.indexOf('=');
+        if (separator < 0 || !entry.regionMatches(true, 0, "File", 0, 4)) {
+            return null;
+        }
+        return entry.substring(separator + 1).strip();
+    }
+
+    private static Path resolve(Path folder, String entry) {
+        try {
+            if (entry.regionMatches(true, 0, "file:", 0, 5)) {
+                return Paths.get(URI.create(entry));
+            }
+            if (entry.contains("://")) {
+                return null; // Streams are not part of the library
+            }
+            Path path = Paths.get(entry);
+            return path.isAbsolute() ? path.normalize() : folder.resolve(path).normalize();
+        } catch (IllegalArgumentException e) {
+            // Malformed URI or path, InvalidPathException included
+            return null;
+        }
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
@@ -0,0 +1,288 @@
+package com.tuneupv2.library;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+// Prefix trie over the words of title, artist and album. Every trie node up to MAX_PREFIX characters
+// deep keeps the sorted ids of the songs that have a word starting with that prefix, so a query only
+// touches the posting lists of its own words. All index work runs on one background thread, so
+// typing never blocks the FX thread.
+public class SearchIndex {
+    private static final int MAX_PREFIX = 8;
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    private final List<Song> docs = new ArrayList<>();
+    private final BitSet removed = new BitSet();
+    private final Node root = new Node();
+    private final AtomicLong latestQuery = new AtomicLong();
+    private volatile long lastQueryNanos;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "search-index");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Matching songs of one query, checked by the song's index id
+    public static class Result implements Predicate<Song> {
+        private final BitSet matches;
+        private final int size;
+
+        private Result(BitSet matches) {
+            this.matches = matches;
+            this.size = matches.cardinality();
+        }
+
+        @Override
+        public boolean test(Song song) {
+            return song.getSearchId() >= 0 && matches.get(song.getSearchId());
+        }
+
+        public int size() {
+            return size;
+        }
+    }
+
+    private static class Node {
+        private char[] keys = new char[0];
+        private Node[] children = new Node[0];
+        // Sorted ids of the songs below this prefix
+        private int[] ids = new int[0];
+        private int size;
+
+        private Node child(char c, boolean create) {
+            int i = Arrays.binarySearch(keys, c);
+            if (i >= 0) {
+                return children[i];
+            }
+            if (!create) {
+                return null;
+            }
+            int insert = -i - 1;
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, insert);
+            System.arraycopy(children, 0, newChildren, 0, insert);
+            System.arraycopy(keys, insert, newKeys, insert + 1, keys.length - insert);
+            System.arraycopy(children, insert, newChildren, insert + 1, children.length - insert);
+            Node node = new Node();
+            newKeys[insert] = c;
+            newChildren[insert] = node;
+            keys = newKeys;
+            children = newChildren;
+            return node;
+        }
+
+        private void add(int id) {
+            // Ids only grow, so a song seen twice under one prefix is always the last entry
+            if (size > 0 && ids[size - 1] == id) {
+                return;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, Math.max(4, size * 2));
+            }
+            ids[size++] = id;
+        }
+    }
+
+    public void addAll(Collection<Song> songs) {
+        List<Song> copy = new ArrayList<>(songs);
+        executor.execute(() -> {
+            for (Song song : copy) {
+                index(song);
+            }
+        });
+    }
+
+    public void removeAll(Collection<Song> songs) {
+        List<Song> copy = new ArrayList<>(songs);
+        executor.execute(() -> {
+            for (Song song : copy) {
+                int id = song.getSearchId();
+                if (id >= 0 && id < docs.size() && docs.get(id) == song) {
+                    removed.set(id);
+                    docs.set(id, null);
+                }
+            }
+        });
+    }
+
+    public void clear() {
+        executor.execute(() -> {
+            docs.clear();
+            removed.clear();
+            root.keys = new char[0];
+            root.children = new Node[0];
+        });
+    }
+
+    // Runs the query in the background and passes the result to the callback, or null for an empty
+    // query. Queries that were superseded by a newer one before they started are skipped.
+    public void search(String query, Consumer<Result> callback) {
+        long queryId = latestQuery.incrementAndGet();
+        executor.execute(() -> {
+            if (queryId == latestQuery.get()) {
+                callback.accept(find(query));
+            }
+        });
+    }
+
+    // Duration of the last query in nanoseconds
+    public long getLastQueryNanos() {
+        return lastQueryNanos;
+    }
+
+    private void index(Song song) {
+        if (song.getSearchId() >= 0 && song.getSearchId() < docs.size() && docs.get(song.getSearchId()) == song) {
+            return;
+        }
+        int id = docs.size();
+        docs.add(song);
+        song.setSearchId(id);
+        indexField(song.getSongName(), id);
+        indexField(song.getArtistName(), id);
+        indexField(song.getAlbum(), id);
+    }
+
+    private void indexField(String field, int id) {
+        if (field == null) {
+            return;
+        }
+        String text = normalize(field);
+        Node node = null;
+        int depth = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (!Character.isLetterOrDigit(c)) {
+                node = null; // End of word
+                continue;
+            }
+            if (node == null) {
+                node = root;
+                depth = 0;
+            }
+            if (depth < MAX_PREFIX) {
+                node = node.child(c, true);
+                node.add(id);
+                depth++;
+            }
+        }
+    }
+
+    private Result find(String query) {
+        long start = System.nanoTime();
+        List<String> terms = words(query);
+        if (terms.isEmpty()) {
+            lastQueryNanos = System.nanoTime() - start;
+            return null;
+        }
+
+        Node[] nodes = new Node[terms.size()];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = lookup(terms.get(i));
+            if (nodes[i] == null) {
+                lastQueryNanos = System.nanoTime() - start;
+                return new Result(new BitSet());
+            }
+        }
+        // Walk the shortest posting list and probe the others
+        Arrays.sort(nodes, (a, b) -> Integer.compare(a.size, b.size));
+
+        BitSet matches = new BitSet(docs.size());
+        Node shortest = nodes[0];
+        int[] cursors = new int[nodes.length];
+        for (int i = 0; i < shortest.size; i++) {
+            int id = shortest.ids[i];
+            if (!removed.get(id) && inAll(nodes, cursors, id) && matchesLongTerms(docs.get(id), terms)) {
+                matches.set(id);
+            }
+        }
+        Result result = new Result(matches);
+        lastQueryNanos = System.nanoTime() - start;
+        return result;
+    }
+
+    private Node lookup(String term) {
+        Node node = root;
+        for (int i = 0; i < Math.min(term.length(), MAX_PREFIX) && node != null; i++) {
+            node = node.child(term.charAt(i), false);
+        }
+        return node;
+    }
+
+    // Merges the other posting lists forward, ids are probed in ascending order
+    private static boolean inAll(Node[] nodes, int[] cursors, int id) {
+        for (int i = 1; i < nodes.length; i++) {
+            Node node = nodes[i];
+            int cursor = cursors[i];
+            while (cursor < node.size && node.ids[cursor] < id) {
+                cursor++;
+            }
+            cursors[i] = cursor;
+            if (cursor == node.size || node.ids[cursor] != id) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Terms longer than MAX_PREFIX were only matched on their first characters, check the full words
+    private static boolean matchesLongTerms(Song song, List<String> terms) {
+        List<String> words = null;
+        for (String term : terms) {
+            if (term.length() <= MAX_PREFIX) {
+                continue;
+            }
+            if (words == null) {
+                words = new ArrayList<>();
+                words.addAll(words(song.getSongName()));
+                words.addAll(words(song.getArtistName()));
+                words.addAll(words(song.getAlbum()));
+            }
+            if (words.stream().noneMatch(word -> word.startsWith(term))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Lower case and without accents, so "Beyoncé" is found by "beyonce"
+    static String normalize(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > 0x7F) {
+                String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+                return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+            }
+        }
+        return text.toLowerCase(Locale.ROOT);
+    }
+
+    private static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        String normalized = normalize(text);
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean letter = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (letter && start < 0) {
+                start = i;
+            } else if (!letter && start >= 0) {
+                words.add(normalized.substring(start, i));
+                start = -1;
+            }
+        }
+        return words;
+    }
+}
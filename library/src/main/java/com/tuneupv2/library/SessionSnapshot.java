@@ -0,0 +1,164 @@
+package com.tuneupv2.library;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// The player's state at exit: library root, songs in table order, play queue, position, volume and mute.
+// It is read on startup so the table is filled without touching the music folder. Artist and album
+// names are written once in a string table and referenced by number from each song.
+public class SessionSnapshot {
+    private static final int MAGIC = 0x54555353; // "TUSS"
+    private static final int VERSION = 2;
+
+    private final File root;
+    private final List<Song> songs;
+    private final PlaybackQueue queue;
+    private final double position;
+    private final double volume;
+    private final boolean muted;
+
+    public SessionSnapshot(File root, List<Song> songs, PlaybackQueue queue, double position, double volume, boolean muted) {
+        this.root = root;
+        this.songs = songs;
+        this.queue = queue;
+        this.position = position;
+        this.volume = volume;
+        this.muted = muted;
+    }
+
+    // Next to the library index
+    public static Path defaultLocation() {
+        return LibraryIndex.defaultLocation().resolveSibling("session.snapshot");
+    }
+
+    // Folder the songs were scanned from, null if none was scanned completely
+    public File getRoot() {
+        return root;
+    }
+
+    public List<Song> getSongs() {
+        return songs;
+    }
+
+    public PlaybackQueue getQueue() {
+        return queue;
+    }
+
+    // Playback position of the current song in seconds
+    public double getPosition() {
+        return position;
+    }
+
+    public double getVolume() {
+        return volume;
+    }
+
+    public boolean isMuted() {
+        return muted;
+    }
+
+    public void save(Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        // Write to a temporary file first so a crash never leaves a half written snapshot
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(root == null ? "" : root.getPath());
+            out.writeDouble(position);
+            out.writeDouble(volume);
+            out.writeBoolean(muted);
+            queue.write(out);
+
+            Map<String, Integer> stringIds = new HashMap<>();
+            List<String> strings = new ArrayList<>();
+            for (Song song : songs) {
+                for (String value : new String[]{nullToEmpty(song.getArtistName()), nullToEmpty(song.getAlbum())}) {
+                    if (stringIds.putIfAbsent(value, strings.size()) == null) {
+                        strings.add(value);
+                    }
+                }
+            }
+            out.writeInt(strings.size());
+            for (String value : strings) {
+                out.writeUTF(value);
+            }
+            out.writeInt(songs.size());
+            for (Song song : songs) {
+                out.writeUTF(nullToEmpty(song.getId()));
+                out.writeUTF(nullToEmpty(song.getSongName()));
+                out.writeInt(stringIds.get(nullToEmpty(song.getArtistName())));
+                out.writeInt(stringIds.get(nullToEmpty(song.getAlbum())));
+                out.writeInt(song.getDuration());
+                out.writeUTF(song.getUrl());
+                out.writeLong(song.getArtworkHash());
+                out.writeFloat(song.getTrackGain());
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Returns null if there is no snapshot or it was written by another version
+    public static SessionSnapshot load(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return null;
+            }
+            String root = in.readUTF();
+            double position = in.readDouble();
+            double volume = in.readDouble();
+            boolean muted = in.readBoolean();
+            PlaybackQueue queue = PlaybackQueue.read(in);
+
+            int stringCount = in.readInt();
+            if (stringCount < 0) {
+                throw new IOException("Invalid string count " + stringCount + " in " + file);
+            }
+            String[] strings = new String[stringCount];
+            for (int i = 0; i < strings.length; i++) {
+                strings[i] = in.readUTF();
+            }
+            int count = in.readInt();
+            // The queue holds indices into the song list, so both have to agree
+            if (count != queue.getSize()) {
+                throw new IOException(count + " songs for a queue of " + queue.getSize() + " in " + file);
+            }
+            List<Song> songs = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String id = in.readUTF();
+                String songName = in.readUTF();
+                String artistName = string(strings, in.readInt(), file);
+                String album = string(strings, in.readInt(), file);
+                Song song = new Song(id, artistName, songName, in.readInt(), album, in.readUTF(), in.readLong());
+                song.setTrackGain(in.readFloat());
+                songs.add(song);
+            }
+            return new SessionSnapshot(root.isEmpty() ? null : new File(root), songs, queue, position, volume, muted);
+        }
+    }
+
+    private static String string(String[] strings, int index, Path file) throws IOException {
+        if (index < 0 || index >= strings.length) {
+            throw new IOException("Invalid string index " + index + " in " + file);
+        }
+        return strings[index];
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
@@ -0,0 +1,121 @@
+package com.tuneupv2.library;
+
+// One track of the library. Fields are plain values, the View wraps them for its columns when needed.
+public class Song {
+    // Artist and album names repeat across tracks, so each distinct value is stored only once
+    private static final WeakPool<String, String> SHARED_STRINGS = new WeakPool<>();
+
+    private String id;
+    private String artistName;
+    private String songName;
+    private String album;
+    private String url;
+    private int duration; // In seconds
+    private long artworkHash;
+    private float trackGain = Float.NaN; // ReplayGain in dB, NaN until known
+    private int searchId = -1; // Id assigned by SearchIndex
+    private SortKeys sortKeys; // Computed on first use
+
+    public Song(String url) {
+        this.url = url;
+    }
+
+    public Song(String id, String artistName, String songName, int duration, String album, String url, long artworkHash) {
+        this.id = id;
+        this.artistName = share(artistName);
+        this.songName = songName;
+        this.duration = duration;
+        this.album = share(album);
+        this.url = url;
+        this.artworkHash = artworkHash;
+    }
+
+    private static String share(String value) {
+        return value == null ? null : SHARED_STRINGS.get(value, name -> name);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getArtistName() {
+        return artistName;
+    }
+
+    public void setArtistName(String artistName) {
+        this.artistName = share(artistName);
+        sortKeys = null;
+    }
+
+    public String getSongName() {
+        return songName;
+    }
+
+    public void setSongName(String songName) {
+        this.songName = songName;
+        sortKeys = null;
+    }
+
+    public String getAlbum() {
+        return album;
+    }
+
+    public void setAlbum(String album) {
+        this.album = share(album);
+        sortKeys = null;
+    }
+
+    public int getDuration() {
+        return duration;
+    }
+
+    public void setDuration(int duration) {
+        this.duration = duration;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    // Content hash of the embedded cover, used as the album art cache key
+    public long getArtworkHash() {
+        return artworkHash;
+    }
+
+    public void setArtworkHash(long artworkHash) {
+        this.artworkHash = artworkHash;
+    }
+
+    // Gain in dB that brings the track to the ReplayGain reference loudness, NaN if unknown
+    public float getTrackGain() {
+        return trackGain;
+    }
+
+    public void setTrackGain(float trackGain) {
+        this.trackGain = trackGain;
+    }
+
+    int getSearchId() {
+        return searchId;
+    }
+
+    void setSearchId(int searchId) {
+        this.searchId = searchId;
+    }
+
+    SortKeys getSortKeys() {
+        return sortKeys;
+    }
+
+    void setSortKeys(SortKeys sortKeys) {
+        this.sortKeys = sortKeys;
+    }
+}
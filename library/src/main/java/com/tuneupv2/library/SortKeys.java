@@ -0,0 +1,86 @@
+package com.tuneupv2.library;
+
+import java.text.Collator;
+import java.util.Arrays;
+import java.util.Comparator;
+
+// Sort keys computed once per song: collation keys of title, artist and album, so comparing two songs
+// is a primitive comparison instead of a locale aware string compare. The first eight bytes of each key
+// are packed into a long that decides almost every comparison; the full key only breaks ties. Case is
+// ignored, accents only break ties. Artist and album keys are shared like the names themselves, so
+// songs of the same artist or album compare equal by reference.
+public final class SortKeys {
+    private static final ThreadLocal<Collator> COLLATOR = ThreadLocal.withInitial(() -> {
+        Collator collator = Collator.getInstance();
+        collator.setStrength(Collator.SECONDARY);
+        collator.setDecomposition(Collator.CANONICAL_DECOMPOSITION);
+        return collator;
+    });
+    private static final WeakPool<String, Key> SHARED_KEYS = new WeakPool<>();
+    private static final Key EMPTY = new Key(new byte[0]);
+
+    public static final Comparator<Song> TITLE = (a, b) -> of(a).title.compareTo(of(b).title);
+    public static final Comparator<Song> ARTIST = (a, b) -> of(a).artist.compareTo(of(b).artist);
+    public static final Comparator<Song> ALBUM = (a, b) -> of(a).album.compareTo(of(b).album);
+    public static final Comparator<Song> DURATION = Comparator.comparingInt(Song::getDuration);
+
+    private final Key title;
+    private final Key artist;
+    private final Key album;
+
+    private static class Key {
+        private final long prefix;
+        private final byte[] bytes;
+
+        private Key(byte[] bytes) {
+            long prefix = 0;
+            for (int i = 0; i < 8; i++) {
+                prefix = (prefix << 8) | (i < bytes.length ? bytes[i] & 0xFF : 0);
+            }
+            this.prefix = prefix;
+            this.bytes = bytes;
+        }
+
+        private int compareTo(Key other) {
+            if (this == other) {
+                return 0;
+            }
+            int result = Long.compareUnsigned(prefix, other.prefix);
+            return result != 0 ? result : Arrays.compareUnsigned(bytes, other.bytes);
+        }
+    }
+
+    private SortKeys(Song song) {
+        title = key(song.getSongName());
+        artist = sharedKey(song.getArtistName());
+        album = sharedKey(song.getAlbum());
+    }
+
+    // Computes the keys of the song ahead of the first sort, e.g. on a scanner thread
+    public static void prepare(Song song) {
+        of(song);
+    }
+
+    // The keys are immutable, so two threads computing them at once is harmless
+    static SortKeys of(Song song) {
+        SortKeys keys = song.getSortKeys();
+        if (keys == null) {
+            keys = new SortKeys(song);
+            song.setSortKeys(keys);
+        }
+        return keys;
+    }
+
+    // Compares artist or album names in the same order as the table, through their shared keys
+    static int compareNames(String a, String b) {
+        return sharedKey(a).compareTo(sharedKey(b));
+    }
+
+    private static Key sharedKey(String value) {
+        return value == null ? EMPTY : SHARED_KEYS.get(value, SortKeys::key);
+    }
+
+    private static Key key(String value) {
+        return value == null ? EMPTY : new Key(COLLATOR.get().getCollationKey(value).toByteArray());
+    }
+}
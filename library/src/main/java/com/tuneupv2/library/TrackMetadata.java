@@ -0,0 +1,68 @@
+package com.tuneupv2.library;
+
+import java.util.zip.CRC32;
+
+// Everything read from one audio file in a single pass
+public class TrackMetadata {
+    public static final long NO_ARTWORK = 0;
+
+    private final String songName;
+    private final String artistName;
+    private final String album;
+    private final int length;
+    private final byte[] artwork;
+    private final float trackGain;
+
+    public TrackMetadata(String songName, String artistName, String album, int length, byte[] artwork) {
+        this(songName, artistName, album, length, artwork, Float.NaN);
+    }
+
+    public TrackMetadata(String songName, String artistName, String album, int length, byte[] artwork, float trackGain) {
+        this.songName = songName;
+        this.artistName = artistName;
+        this.album = album;
+        this.length = length;
+        this.artwork = artwork;
+        this.trackGain = trackGain;
+    }
+
+    public String getSongName() {
+        return songName;
+    }
+
+    public String getArtistName() {
+        return artistName;
+    }
+
+    public String getAlbum() {
+        return album;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    // ReplayGain track gain from the tags in dB, NaN if the file has none
+    public float getTrackGain() {
+        return trackGain;
+    }
+
+    // Raw embedded cover bytes, or null if the file has no artwork
+    public byte[] getArtwork() {
+        return artwork;
+    }
+
+    // Content hash of the embedded cover bytes, NO_ARTWORK if there are none
+    public long getArtworkHash() {
+        return hash(artwork);
+    }
+
+    public static long hash(byte[] imageData) {
+        if (imageData == null || imageData.length == 0) {
+            return NO_ARTWORK;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(imageData);
+        return (crc.getValue() << 32) | (imageData.length & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,274 @@
+package com.tuneupv2.library;
+
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Peak summaries for the waveform behind the progress bar: the lowest and highest sample of every
+// 100 ms as one signed byte each, so a three minute track takes 3.6 KB. Summaries are generated on a
+// background thread in one streaming pass over the file and cached in a folder next to the library
+// index, one small file per track keyed by its path, size and modification time.
+public class WaveformCache {
+    private static final Logger LOG = Logger.getLogger(WaveformCache.class.getName());
+    private static final Metrics.Histogram GENERATE_MILLIS = Metrics.histogram("waveform.generateMillis");
+    private static final int MAGIC = 0x54555746; // "TUWF"
+    private static final int VERSION = 1;
+    public static final int BUCKET_MILLIS = 100;
+
+    // MPEG Layer III bitrates in kbit/s by version (MPEG-1, MPEG-2 and 2.5) and index
+    private static final int[][] MP3_BITRATES = {
+            {0, 32, 40, 48, 56, 64, 80, 96, 112, 128, 160, 192, 224, 256, 320},
+            {0, 8, 16, 24, 32, 40, 48, 56, 64, 80, 96, 112, 128, 144, 160}
+    };
+    private static final int[] MP3_SAMPLE_RATES = {44100, 48000, 32000};
+
+    private final Path folder;
+    private final ExecutorService generator;
+    private volatile File wanted; // Only the last requested file is worth generating
+
+    // Lowest and highest sample of every bucket, in -127..127
+    public static class Peaks {
+        private final byte[] values; // Minimum and maximum of each bucket, interleaved
+
+        private Peaks(byte[] values) {
+            this.values = values;
+        }
+
+        public int size() {
+            return values.length / 2;
+        }
+
+        public int min(int bucket) {
+            return values[2 * bucket];
+        }
+
+        public int max(int bucket) {
+            return values[2 * bucket + 1];
+        }
+    }
+
+    public WaveformCache(Path folder) {
+        this.folder = folder;
+        generator = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "waveform-generator");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    public static boolean isSupported(File file) {
+        return PcmStream.isDecodable(file) || file.getName().toLowerCase(Locale.ROOT).endsWith(".mp3");
+    }
+
+    // Passes the peaks of the file to onReady on the generator thread, null if there are none. A newer
+    // request makes older ones that did not start yet return null without reading their file.
+    public void request(File audioFile, Consumer<Peaks> onReady) {
+        wanted = audioFile;
+        generator.execute(() -> onReady.accept(audioFile.equals(wanted) ? get(audioFile) : null));
+    }
+
+    // Cached peaks of the file, generated and cached first if needed; null if the format is not supported
+    public Peaks get(File audioFile) {
+        if (!isSupported(audioFile)) {
+            return null;
+        }
+        Path cached = cacheFile(audioFile);
+        try {
+            Peaks peaks = read(cached);
+            if (peaks == null) {
+                long start = System.nanoTime();
+                peaks = new Peaks(PcmStream.isDecodable(audioFile) ? pcmPeaks(audioFile) : mp3Peaks(audioFile));
+                GENERATE_MILLIS.record((System.nanoTime() - start) / 1_000_000);
+                write(cached, peaks);
+            }
+            return peaks;
+        } catch (IOException | UnsupportedAudioFileException | RuntimeException e) {
+            LOG.log(Level.FINE, "No waveform for " + audioFile, e);
+            return null;
+        }
+    }
+
+    public void shutdown() {
+        generator.shutdownNow();
+    }
+
+    private Path cacheFile(File audioFile) {
+        String key = audioFile.getAbsolutePath() + '\n' + audioFile.length() + '\n' + audioFile.lastModified();
+        return folder.resolve(UUID.nameUUIDFromBytes(key.getBytes(StandardCharsets.UTF_8)) + ".peaks");
+    }
+
+    private static Peaks read(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return null;
+            }
+            byte[] values = new byte[2 * in.readInt()];
+            in.readFully(values);
+            return new Peaks(values);
+        }
+    }
+
+    private void write(Path file, Peaks peaks) throws IOException {
+        Files.createDirectories(folder);
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(peaks.size());
+            out.write(peaks.values);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Exact sample peaks over all channels
+    private static byte[] pcmPeaks(File file) throws IOException, UnsupportedAudioFileException {
+        byte[] peaks = new byte[1024];
+        int buckets = 0;
+        double[] samples = new double[1 << 14];
+        try (PcmStream in = new PcmStream(file, new byte[1 << 16])) {
+            int channels = in.getChannels();
+            int framesPerBucket = Math.max(1, Math.round(in.getSampleRate() * BUCKET_MILLIS / 1000));
+            int frames = 0;
+            double min = 0;
+            double max = 0;
+            int read;
+            while ((read = in.read(samples)) > 0) {
+                for (int i = 0; i < read; i++) {
+                    min = Math.min(min, samples[i]);
+                    max = Math.max(max, samples[i]);
+                    if (i % channels == channels - 1 && ++frames == framesPerBucket) {
+                        peaks = add(peaks, buckets++, min, max);
+                        frames = 0;
+                        min = 0;
+                        max = 0;
+                    }
+                }
+            }
+            if (frames > 0) {
+                peaks = add(peaks, buckets++, min, max);
+            }
+        }
+        return Arrays.copyOf(peaks, 2 * buckets);
+    }
+
+    // The JDK cannot decode MP3, so the envelope comes from the frames' side info instead: the global
+    // gain of a granule is its quantizer step size, which follows the signal level in 1.5 dB steps.
+    // Levels are relative to the loudest frame of the track and drawn symmetrically.
+    private static byte[] mp3Peaks(File file) throws IOException {
+        int[] gains = new int[1024];
+        int buckets = 0;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int position = (int) AudioHash.id3v2Length(channel, size);
+            long samples = 0;
+            while (position + 4 <= size) {
+                int header = data.getInt(position);
+                int length = mp3FrameLength(header);
+                if (length <= 0 || position + length > size) {
+                    position++; // Not a frame header, look for the next sync word
+                    continue;
+                }
+                boolean mpeg1 = (header >>> 19 & 3) == 3;
+                int sampleRate = MP3_SAMPLE_RATES[header >>> 10 & 3] >> (mpeg1 ? 0 : (header >>> 19 & 3) == 2 ? 1 : 2);
+                int bucket = (int) (samples * 1000 / sampleRate / BUCKET_MILLIS);
+                if (bucket >= gains.length) {
+                    gains = Arrays.copyOf(gains, Math.max(gains.length * 2, bucket + 1));
+                }
+                while (buckets <= bucket) {
+                    gains[buckets++] = -1; // Silent until a granule with audio data lands in it
+                }
+                gains[bucket] = Math.max(gains[bucket], mp3GlobalGain(data, position, header));
+                samples += mpeg1 ? 1152 : 576;
+                position += length;
+            }
+        }
+        int loudest = -1;
+        for (int i = 0; i < buckets; i++) {
+            loudest = Math.max(loudest, gains[i]);
+        }
+        byte[] peaks = new byte[2 * buckets];
+        for (int i = 0; i < buckets; i++) {
+            double level = gains[i] < 0 ? 0 : Math.pow(2, (gains[i] - loudest) / 4.0);
+            add(peaks, i, -level, level);
+        }
+        return peaks;
+    }
+
+    // Length in bytes of the Layer III frame starting with this header, 0 if it is not one
+    private static int mp3FrameLength(int header) {
+        int version = header >>> 19 & 3;
+        int bitrateIndex = header >>> 12 & 15;
+        int sampleRateIndex = header >>> 10 & 3;
+        if ((header >>> 21 & 0x7FF) != 0x7FF || version == 1 || (header >>> 17 & 3) != 1
+                || bitrateIndex == 0 || bitrateIndex == 15 || sampleRateIndex == 3) {
+            return 0;
+        }
+        boolean mpeg1 = version == 3;
+        int bitrate = MP3_BITRATES[mpeg1 ? 0 : 1][bitrateIndex] * 1000;
+        int sampleRate = MP3_SAMPLE_RATES[sampleRateIndex] >> (mpeg1 ? 0 : version == 2 ? 1 : 2);
+        return (mpeg1 ? 144 : 72) * bitrate / sampleRate + (header >>> 9 & 1);
+    }
+
+    // Highest global gain over the granules and channels of a frame, -1 if every granule is silent
+    private static int mp3GlobalGain(MappedByteBuffer data, int position, int header) {
+        boolean mpeg1 = (header >>> 19 & 3) == 3;
+        boolean mono = (header >>> 6 & 3) == 3;
+        int channels = mono ? 1 : 2;
+        // Side info follows the header and the optional CRC
+        int sideInfo = position + 4 + ((header >>> 16 & 1) == 0 ? 2 : 0);
+        int bit = mpeg1 ? (mono ? 18 : 20) : (mono ? 9 : 10);
+        int granuleBits = mpeg1 ? 59 : 63;
+        int gain = -1;
+        for (int granule = 0; granule < (mpeg1 ? 2 : 1); granule++) {
+            for (int c = 0; c < channels; c++) {
+                int part23Length = bits(data, sideInfo, bit, 12);
+                if (part23Length > 0) {
+                    gain = Math.max(gain, bits(data, sideInfo, bit + 21, 8));
+                }
+                bit += granuleBits;
+            }
+        }
+        return gain;
+    }
+
+    private static int bits(MappedByteBuffer data, int start, int offset, int count) {
+        int value = 0;
+        for (int i = offset; i < offset + count; i++) {
+            value = value << 1 | (data.get(start + i / 8) >>> (7 - i % 8) & 1);
+        }
+        return value;
+    }
+
+    private static byte[] add(byte[] peaks, int bucket, double min, double max) {
+        if (2 * bucket + 1 >= peaks.length) {
+            peaks = Arrays.copyOf(peaks, peaks.length * 2);
+        }
+        peaks[2 * bucket] = (byte) Math.round(Math.max(-1, min) * 127);
+        peaks[2 * bucket + 1] = (byte) Math.round(Math.min(1, max) * 127);
+        return peaks;
+    }
+}
@@ -0,0 +1,64 @@
+package com.tuneupv2.library;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.function.Function;
+
+// One shared value per distinct key, held weakly: an entry goes away with the last song that uses its
+// key, so names of removed or retagged tracks do not stay in memory for the life of the process.
+// Striped so the scanner threads do not all queue on one lock; values are created outside the locks.
+final class WeakPool<K, V> {
+    private static final int STRIPES = 16;
+
+    private final List<Map<K, WeakReference<V>>> stripes = new ArrayList<>(STRIPES);
+
+    WeakPool() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes.add(new WeakHashMap<>());
+        }
+    }
+
+    // Returns the shared value of the key, creating it if there is none yet
+    V get(K key, Function<? super K, ? extends V> create) {
+        Map<K, WeakReference<V>> stripe = stripe(key);
+        synchronized (stripe) {
+            V value = value(stripe, key);
+            if (value != null) {
+                return value;
+            }
+        }
+        V created = create.apply(key);
+        synchronized (stripe) {
+            V raced = value(stripe, key);
+            if (raced != null) {
+                return raced;
+            }
+            stripe.put(key, new WeakReference<>(created));
+            return created;
+        }
+    }
+
+    // Number of live entries, for tests and diagnostics
+    int size() {
+        int size = 0;
+        for (Map<K, WeakReference<V>> stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    private Map<K, WeakReference<V>> stripe(K key) {
+        int hash = key.hashCode();
+        return stripes.get((hash ^ hash >>> 16) & (STRIPES - 1));
+    }
+
+    private static <K, V> V value(Map<K, WeakReference<V>> stripe, K key) {
+        WeakReference<V> reference = stripe.get(key);
+        return reference == null ? null : reference.get();
+    }
+}
@@ -0,0 +1,140 @@
+package com.tuneupv2.library;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class AudioHashTest {
+    @TempDir
+    Path folder;
+
+    // Reference values of XXH64 with seed 0
+    @Test
+    void matchesTheXxh64TestVectors() throws IOException {
+        assertEquals(0xEF46DB3751D8E999L, hash(new byte[0]));
+        assertEquals(0xD24EC4F1A98C6E5BL, hash("a".getBytes(StandardCharsets.US_ASCII)));
+        assertEquals(0x44BC2CF5AD770999L, hash("abc".getBytes(StandardCharsets.US_ASCII)));
+        assertEquals(0xFBCEA83C8A378BF1L, hash("Nobody inspects the spammish repetition".getBytes(StandardCharsets.US_ASCII)));
+        assertEquals(0x0B242D361FDA71BCL, hash("The quick brown fox jumps over the lazy dog".getBytes(StandardCharsets.US_ASCII)));
+        assertEquals(0x0B242D361FDA71BCL, Xxh64.hash("The quick brown fox jumps over the lazy dog".getBytes(StandardCharsets.US_ASCII)));
+        assertEquals(0xFBCEA83C8A378BF1L, Xxh64.hash("Nobody inspects the spammish repetition".getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    // Files larger than the read buffer hash the same as a single pass over the bytes
+    @Test
+    void chunkBoundariesDoNotChangeTheHash() throws IOException {
+        byte[] audio = new byte[(1 << 21) + 1000 + 37];
+        new Random(1).nextBytes(audio);
+        audio[0] = 0; // Not an ID3v2 header
+        for (int length : new int[]{31, 32, 33, 4096 + 7, 1 << 20, (1 << 20) + 5, audio.length}) {
+            byte[] part = Arrays.copyOf(audio, length);
+            assertEquals(Xxh64.hash(part), hash(part), "length " + length);
+        }
+    }
+
+    @Test
+    void tagsAroundTheAudioAreIgnored() throws IOException {
+        byte[] audio = new byte[5000];
+        new Random(2).nextBytes(audio);
+        audio[0] = 0;
+        ByteArrayOutputStream tagged = new ByteArrayOutputStream();
+        // ID3v2 header with 100 bytes of frames, then the audio, then an ID3v1 tag
+        tagged.write(new byte[]{'I', 'D', '3', 3, 0, 0, 0, 0, 0, 100});
+        tagged.write(new byte[100]);
+        tagged.write(audio);
+        byte[] id3v1 = new byte[128];
+        id3v1[0] = 'T';
+        id3v1[1] = 'A';
+        id3v1[2] = 'G';
+        tagged.write(id3v1);
+        assertEquals(hash(audio), hash(tagged.toByteArray()));
+
+        audio[2500] ^= 1;
+        assertNotEquals(hash(audio), hash(tagged.toByteArray()));
+    }
+
+    @Test
+    void trackIdIsTheHashInHex() {
+        assertEquals("00000000000000ff", AudioHash.trackId(255));
+        assertEquals("ef46db3751d8e999", AudioHash.trackId(0xEF46DB3751D8E999L));
+    }
+
+    private long hash(byte[] content) throws IOException {
+        Path file = Files.write(folder.resolve("audio.bin"), content);
+        return AudioHash.hash(file);
+    }
+
+    // Straightforward XXH64 over an array, checked against the same vectors as AudioHash
+    private static final class Xxh64 {
+        private static final long PRIME1 = 0x9E3779B185EBCA87L;
+        private static final long PRIME2 = 0xC2B2AE3D27D4EB4FL;
+        private static final long PRIME3 = 0x165667B19E3779F9L;
+        private static final long PRIME4 = 0x85EBCA77C2B2AE63L;
+        private static final long PRIME5 = 0x27D4EB2F165667C5L;
+
+        static long hash(byte[] data) {
+            int i = 0;
+            long hash;
+            if (data.length >= 32) {
+                long v1 = PRIME1 + PRIME2;
+                long v2 = PRIME2;
+                long v3 = 0;
+                long v4 = -PRIME1;
+                for (; i + 32 <= data.length; i += 32) {
+                    v1 = round(v1, longAt(data, i));
+                    v2 = round(v2, longAt(data, i + 8));
+                    v3 = round(v3, longAt(data, i + 16));
+                    v4 = round(v4, longAt(data, i + 24));
+                }
+                hash = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+                for (long v : new long[]{v1, v2, v3, v4}) {
+                    hash = (hash ^ round(0, v)) * PRIME1 + PRIME4;
+                }
+            } else {
+                hash = PRIME5;
+            }
+            hash += data.length;
+            for (; i + 8 <= data.length; i += 8) {
+                hash ^= round(0, longAt(data, i));
+                hash = Long.rotateLeft(hash, 27) * PRIME1 + PRIME4;
+            }
+            if (i + 4 <= data.length) {
+                hash ^= (longAt(data, i) & 0xFFFFFFFFL) * PRIME1;
+                hash = Long.rotateLeft(hash, 23) * PRIME2 + PRIME3;
+                i += 4;
+            }
+            for (; i < data.length; i++) {
+                hash ^= (data[i] & 0xFF) * PRIME5;
+                hash = Long.rotateLeft(hash, 11) * PRIME1;
+            }
+            hash ^= hash >>> 33;
+            hash *= PRIME2;
+            hash ^= hash >>> 29;
+            hash *= PRIME3;
+            return hash ^ hash >>> 32;
+        }
+
+        private static long round(long accumulator, long input) {
+            return Long.rotateLeft(accumulator + input * PRIME2, 31) * PRIME1;
+        }
+
+        // Little endian, reading past the end as zeros so the four byte step can share it
+        private static long longAt(byte[] data, int offset) {
+            long value = 0;
+            for (int b = 7; b >= 0; b--) {
+                value = value << 8 | (offset + b < data.length ? data[offset + b] & 0xFF : 0);
+            }
+            return value;
+        }
+    }
+}
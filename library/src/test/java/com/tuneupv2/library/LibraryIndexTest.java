@@ -0,0 +1,83 @@
+package com.tuneupv2.library;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+class LibraryIndexTest {
+    @TempDir
+    Path folder;
+
+    @Test
+    void savedEntriesAreLoadedAgain() throws Exception {
+        File audio = Files.write(folder.resolve("a.mp3"), new byte[100]).toFile();
+        Path file = folder.resolve("index/library.idx");
+        LibraryIndex index = new LibraryIndex(file);
+        index.put(entry(audio).withContentHash(42).withTrackGain(-3.5f));
+        index.recordScan(folder.toFile(), 1234, true);
+        index.save();
+
+        LibraryIndex loaded = new LibraryIndex(file);
+        loaded.load();
+        LibraryIndex.Entry entry = loaded.lookup(audio);
+        assertNotNull(entry);
+        assertEquals("Title", entry.getSongName());
+        assertEquals(42, entry.getContentHash());
+        assertEquals(-3.5f, entry.getTrackGain());
+        assertEquals(1234, loaded.getScanTimes(folder.toFile()).getColdMillis());
+    }
+
+    @Test
+    void entriesAddedWhileSavingAreWrittenByTheNextSave() throws Exception {
+        Path file = folder.resolve("library.idx");
+        LibraryIndex index = new LibraryIndex(file);
+        List<File> files = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            files.add(Files.write(folder.resolve(i + ".mp3"), new byte[i]).toFile());
+        }
+        AtomicBoolean done = new AtomicBoolean();
+        Thread saver = new Thread(() -> {
+            while (!done.get()) {
+                index.save();
+            }
+        });
+        saver.start();
+        for (File audio : files) {
+            index.put(entry(audio));
+        }
+        done.set(true);
+        saver.join();
+        index.save();
+
+        LibraryIndex loaded = new LibraryIndex(file);
+        loaded.load();
+        assertEquals(files.size(), loaded.size());
+    }
+
+    @Test
+    void inMemoryIndexIsNeverWritten() throws Exception {
+        LibraryIndex index = LibraryIndex.inMemory();
+        index.load();
+        index.put(entry(Files.write(folder.resolve("a.mp3"), new byte[1]).toFile()));
+        index.save();
+        assertEquals(1, index.size());
+        try (var listing = Files.list(folder)) {
+            assertFalse(listing.anyMatch(path -> path.toString().endsWith(".idx")));
+        }
+    }
+
+    private static LibraryIndex.Entry entry(File audio) {
+        return new LibraryIndex.Entry(audio.getAbsolutePath(), audio.length(), audio.lastModified(),
+                "Title", "Artist", "Album", 180, 0, 0, Float.NaN);
+    }
+}
@@ -0,0 +1,57 @@
+package com.tuneupv2.library;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LibraryScannerTest {
+    private static final int FILES = 30;
+
+    @TempDir
+    Path folder;
+
+    private final LibraryScanner scanner = new LibraryScanner(LibraryIndex.inMemory(), false, 4);
+
+    @AfterEach
+    void shutdown() {
+        scanner.shutdown();
+    }
+
+    @Test
+    void everyFileIsOpenedOnceAndNotAgainWhenIndexed() throws Exception {
+        fixtureFolder();
+        MetadataExtractor extractor = scanner.getExtractor();
+        extractor.resetCounters();
+
+        List<Song> songs = TestAudio.scan(scanner, folder);
+        assertEquals(FILES, songs.size());
+        assertEquals(FILES, extractor.getFilesOpened());
+
+        List<Song> again = TestAudio.scan(scanner, folder);
+        assertEquals(FILES, again.size());
+        assertEquals(FILES, extractor.getFilesOpened());
+    }
+
+    @Test
+    void tagsAreReadIntoTheSongs() throws Exception {
+        TestAudio.mp3(folder.resolve("a/one.mp3"), "One", "Artist", "Album", 20);
+        List<Song> songs = TestAudio.scan(scanner, folder);
+        assertEquals(1, songs.size());
+        Song song = songs.get(0);
+        assertEquals("One", song.getSongName());
+        assertEquals("Artist", song.getArtistName());
+        assertEquals("Album", song.getAlbum());
+    }
+
+    private void fixtureFolder() throws IOException {
+        for (int i = 0; i < FILES; i++) {
+            TestAudio.mp3(folder.resolve("artist" + i % 3 + "/track" + i + ".mp3"), "Track " + i, "Artist " + i % 3, "Album", 10 + i);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.tuneupv2.library;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LibraryWalkerTest {
+    @TempDir
+    Path folder;
+
+    @Test
+    void onlyPlayableFormatsAreSupported() {
+        for (String name : new String[]{"a.mp3", "b.M4A", "c.mp4", "d.wav", "e.aif", "f.AIFF"}) {
+            assertTrue(LibraryWalker.isSupported(Paths.get(name)), name);
+        }
+        for (String name : new String[]{"a.flac", "b.ogg", "c.wma", "d.dsf", "e.aac", "f.jpg", "mp3", ".mp3"}) {
+            assertFalse(LibraryWalker.isSupported(Paths.get(name)), name);
+        }
+    }
+
+    @Test
+    void walkStreamsSupportedFilesOfTheWholeTree() throws Exception {
+        Files.createDirectories(folder.resolve("a/b"));
+        Files.write(folder.resolve("one.mp3"), new byte[0]);
+        Files.write(folder.resolve("a/two.wav"), new byte[0]);
+        Files.write(folder.resolve("a/b/three.m4a"), new byte[0]);
+        Files.write(folder.resolve("a/b/four.flac"), new byte[0]);
+        Files.write(folder.resolve("a/cover.jpg"), new byte[0]);
+        List<Path> found = new ArrayList<>();
+        new LibraryWalker(false).walk(folder, found::add, () -> false);
+        assertEquals(3, found.size());
+    }
+}
@@ -0,0 +1,116 @@
+package com.tuneupv2.library;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.sound.sampled.AudioFileFormat;
+import javax.sound.sampled.AudioFormat;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.DoubleUnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LoudnessAnalyzerTest {
+    private static final AudioFormat MONO_16 = new AudioFormat(48000, 16, 1, true, false);
+
+    @TempDir
+    Path folder;
+
+    private final LibraryIndex index = LibraryIndex.inMemory();
+    private final LoudnessAnalyzer analyzer = new LoudnessAnalyzer(index, 2);
+
+    @AfterEach
+    void shutdown() {
+        analyzer.shutdown();
+    }
+
+    // BS.1770 calibration: a full scale 1 kHz sine in one channel reads -3.01 LUFS, 14.99 dB above -18
+    @Test
+    void fullScaleSineReadsMinus3Lufs() throws Exception {
+        Song song = song(TestAudio.pcm(folder.resolve("sine.wav"), AudioFileFormat.Type.WAVE, MONO_16, 3, sine(1)));
+        assertEquals(-14.99, gain(song), 0.05);
+    }
+
+    @Test
+    void quieterSineGetsMoreGain() throws Exception {
+        // -20 dBFS reads -23.01 LUFS
+        Song song = song(TestAudio.pcm(folder.resolve("quiet.wav"), AudioFileFormat.Type.WAVE, MONO_16, 3, sine(0.1)));
+        assertEquals(5.01, gain(song), 0.05);
+    }
+
+    @Test
+    void bothStereoChannelsCount() throws Exception {
+        AudioFormat stereo = new AudioFormat(44100, 16, 2, true, false);
+        Song song = song(TestAudio.pcm(folder.resolve("stereo.wav"), AudioFileFormat.Type.WAVE, stereo, 3, sine(1)));
+        assertEquals(-18, gain(song), 0.05);
+    }
+
+    @Test
+    void sampleFormatsDecodeToTheSameLoudness() throws Exception {
+        AudioFormat aiff24 = new AudioFormat(48000, 24, 1, true, true);
+        AudioFormat unsigned8 = new AudioFormat(AudioFormat.Encoding.PCM_UNSIGNED, 48000, 8, 1, 1, 48000, false);
+        Song aiff = song(TestAudio.pcm(folder.resolve("sine.aiff"), AudioFileFormat.Type.AIFF, aiff24, 3, sine(0.5)));
+        Song wav = song(TestAudio.pcm(folder.resolve("sine8.wav"), AudioFileFormat.Type.WAVE, unsigned8, 3, sine(0.5)));
+        // Half scale is 6.02 dB below full scale
+        assertEquals(-8.97, gain(aiff), 0.05);
+        assertEquals(-8.97, gain(wav), 0.1);
+    }
+
+    // Quiet passages fall below the relative gate, so a fade out does not pull the loudness down. Without
+    // the gate the mean over the whole file would be 3 dB lower; the three blocks straddling the change
+    // still pass it and lower the reading by about 0.2 dB.
+    @Test
+    void relativeGateIgnoresQuietPassages() throws Exception {
+        DoubleUnaryOperator loud = sine(1);
+        DoubleUnaryOperator signal = t -> t < 3 ? loud.applyAsDouble(t) : 0.001 * loud.applyAsDouble(t);
+        Song song = song(TestAudio.pcm(folder.resolve("fade.wav"), AudioFileFormat.Type.WAVE, MONO_16, 6, signal));
+        assertEquals(-14.77, gain(song), 0.05);
+    }
+
+    @Test
+    void silenceAndTooShortFilesGetNoGain() throws Exception {
+        List<Song> songs = new ArrayList<>();
+        songs.add(song(TestAudio.pcm(folder.resolve("silence.wav"), AudioFileFormat.Type.WAVE, MONO_16, 3, t -> 0)));
+        songs.add(song(TestAudio.pcm(folder.resolve("short.wav"), AudioFileFormat.Type.WAVE, MONO_16, 0.2, sine(1))));
+        LoudnessAnalyzer.Report report = analyzer.run(songs, new AtomicBoolean());
+        report.applyGains();
+        assertEquals(2, report.getAnalyzedCount());
+        for (Song song : songs) {
+            assertTrue(Float.isNaN(song.getTrackGain()));
+            assertEquals(1, LoudnessAnalyzer.volumeFactor(song));
+        }
+    }
+
+    @Test
+    void taggedAndCompressedSongsAreNotMeasured() throws Exception {
+        Song tagged = song(TestAudio.pcm(folder.resolve("tagged.wav"), AudioFileFormat.Type.WAVE, MONO_16, 1, sine(1)));
+        tagged.setTrackGain(-2);
+        Song mp3 = song(TestAudio.mp3(folder.resolve("song.mp3"), "Title", "Artist", "Album", 10));
+        List<Song> songs = List.of(tagged, mp3);
+        LoudnessAnalyzer.Report report = analyzer.run(songs, new AtomicBoolean());
+        report.applyGains();
+        assertEquals(0, report.getAnalyzedCount());
+        assertEquals(-2, tagged.getTrackGain());
+        assertTrue(Float.isNaN(mp3.getTrackGain()));
+    }
+
+    private float gain(Song song) {
+        LoudnessAnalyzer.Report report = analyzer.run(List.of(song), new AtomicBoolean());
+        report.applyGains();
+        assertEquals(1, report.getAnalyzedCount());
+        return song.getTrackGain();
+    }
+
+    private static Song song(Path file) {
+        return new Song(file.toUri().toString());
+    }
+
+    private static DoubleUnaryOperator sine(double amplitude) {
+        return t -> amplitude * Math.sin(2 * Math.PI * 1000 * t);
+    }
+}
@@ -0,0 +1,246 @@
+package com.tuneupv2.library;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PlaybackQueueTest {
+    @Test
+    void nextFollowsTheListAndWrapsAround() {
+        PlaybackQueue queue = new PlaybackQueue();
+        queue.setSize(3);
+        assertEquals(0, queue.next());
+        assertEquals(1, queue.next());
+        assertEquals(2, queue.next());
+        assertEquals(0, queue.peekNext());
+        assertEquals(0, queue.next());
+    }
+
+    @Test
+    void emptyQueueHasNoSongs() {
+        PlaybackQueue queue = new PlaybackQueue();
+        assertEquals(-1, queue.next());
+        assertEquals(-1, queue.previous());
+        assertEquals(-1, queue.peekNext());
+    }
+
+    @Test
+    void previousReturnsThroughTheHistoryAndNextComesBack() {
+        PlaybackQueue queue = new PlaybackQueue();
+        queue.setSize(5);
+        queue.select(3);
+        queue.next();
+        assertEquals(4, queue.getCurrent());
+        assertEquals(3, queue.previous());
+        assertEquals(4, queue.next());
+    }
+
+    @Test
+    void previousWithoutHistoryStepsBackInTheList() {
+        PlaybackQueue queue = new PlaybackQueue();
+        queue.setSize(4);
+        assertEquals(3, queue.previous());
+        assertEquals(2, queue.previous());
+    }
+
+    @Test
+    void playNextAndEnqueueComeBeforeTheRestOfTheOrder() {
+        PlaybackQueue queue = new PlaybackQueue();
+        queue.setSize(10);
+        queue.next();
+        queue.enqueue(7);
+        queue.enqueue(8);
+        queue.playNext(5);
+        assertEquals(5, queue.peekNext());
+        assertEquals(5, queue.next());
+        assertEquals(7, queue.next());
+        assertEquals(8, queue.next());
+        // Back to the list order after the song that was current before the queued ones
+        assertEquals(1, queue.next());
+    }
+
+    @Test
+    void shuffledRoundPlaysEverySongOnceThenStartsAnother() {
+        PlaybackQueue queue = new PlaybackQueue(new Random(1));
+        queue.setSize(50);
+        queue.shuffle();
+        for (int round = 0; round < 3; round++) {
+            Set<Integer> played = new HashSet<>();
+            for (int i = 0; i < 50; i++) {
+                int peeked = queue.peekNext();
+                int index = queue.next();
+                assertTrue(peeked == -1 || peeked == index);
+                assertTrue(index >= 0 && index < 50);
+                played.add(index);
+            }
+            assertEquals(50, played.size());
+        }
+    }
+
+    @Test
+    void shuffleKeepsTheCurrentSongOutOfTheNewOrder() {
+        for (int seed = 0; seed < 20; seed++) {
+            PlaybackQueue queue = new PlaybackQueue(new Random(seed));
+            queue.setSize(8);
+            queue.select(5);
+            queue.shuffle();
+            Set<Integer> played = new HashSet<>();
+            for (int i = 0; i < 7; i++) {
+                int index = queue.next();
+                assertNotEquals(5, index);
+                played.add(index);
+            }
+            assertEquals(7, played.size());
+        }
+    }
+
+    @Test
+    void songsAddedWhileShuffledJoinTheOrder() {
+        PlaybackQueue queue = new PlaybackQueue(new Random(3));
+        queue.setSize(10);
+        queue.shuffle();
+        Set<Integer> played = new HashSet<>();
+        for (int i = 0; i < 5; i++) {
+            played.add(queue.next());
+        }
+        queue.setSize(40);
+        for (int i = 5; i < 40; i++) {
+            played.add(queue.next());
+        }
+        assertEquals(40, played.size());
+    }
+
+    @Test
+    void forEachInOrderMatchesNext() {
+        PlaybackQueue queue = new PlaybackQueue(new Random(7));
+        queue.setSize(20);
+        queue.shuffle();
+        int[] order = new int[20];
+        int[] count = new int[1];
+        queue.forEachInOrder(index -> order[count[0]++] = index);
+        for (int i = 0; i < 20; i++) {
+            assertEquals(order[i], queue.next());
+        }
+    }
+
+    @Test
+    void writtenQueueContinuesWhereItStopped() throws IOException {
+        PlaybackQueue queue = new PlaybackQueue(new Random(11));
+        queue.setSize(30);
+        queue.shuffle();
+        for (int i = 0; i < 12; i++) {
+            queue.next();
+        }
+        queue.enqueue(4);
+        PlaybackQueue restored = PlaybackQueue.read(new DataInputStream(new ByteArrayInputStream(bytes(queue))));
+        assertEquals(queue.getCurrent(), restored.getCurrent());
+        assertTrue(restored.isShuffled());
+        assertEquals(4, queue.next());
+        assertEquals(4, restored.next());
+        // History and the part of the order that was already drawn survive, the rest is drawn anew
+        for (int i = 0; i < 5; i++) {
+            assertEquals(queue.previous(), restored.previous());
+        }
+        int[] order = order(queue);
+        int[] restoredOrder = order(restored);
+        for (int i = 0; i < 12; i++) {
+            assertEquals(order[i], restoredOrder[i]);
+        }
+    }
+
+    @Test
+    void unshuffledQueueIsWrittenAndRead() throws IOException {
+        PlaybackQueue queue = new PlaybackQueue();
+        queue.setSize(5);
+        queue.next();
+        queue.select(3);
+        queue.enqueue(1);
+        PlaybackQueue restored = read(bytes(queue));
+        assertEquals(5, restored.getSize());
+        assertEquals(3, restored.getCurrent());
+        assertFalse(restored.isShuffled());
+        for (int i = 0; i < 7; i++) {
+            assertEquals(queue.next(), restored.next());
+        }
+        assertEquals(queue.previous(), restored.previous());
+    }
+
+    @Test
+    void queueGrownAfterLeavingShuffleIsWrittenAndRead() throws IOException {
+        PlaybackQueue queue = new PlaybackQueue(new Random(2));
+        queue.setSize(4);
+        queue.shuffle();
+        queue.next();
+        queue.setShuffled(false);
+        queue.setSize(12);
+        PlaybackQueue restored = read(bytes(queue));
+        assertEquals(12, restored.getSize());
+        for (int i = 0; i < 15; i++) {
+            assertEquals(queue.next(), restored.next());
+        }
+    }
+
+    @Test
+    void damagedQueueFailsWithIOException() throws IOException {
+        PlaybackQueue queue = new PlaybackQueue(new Random(5));
+        queue.setSize(20);
+        queue.shuffle();
+        for (int i = 0; i < 8; i++) {
+            queue.next();
+        }
+        queue.enqueue(3);
+        byte[] bytes = bytes(queue);
+        assertThrows(IOException.class, () -> read(Arrays.copyOf(bytes, bytes.length / 2)));
+        // Any damaged byte either still reads as a queue inside the song list or fails with an IOException
+        for (int i = 0; i < bytes.length; i++) {
+            for (int value : new int[]{0x80, 0xFF, 0x7F}) {
+                byte[] damaged = bytes.clone();
+                damaged[i] = (byte) value;
+                try {
+                    PlaybackQueue restored = read(damaged);
+                    // A damaged size is caught by SessionSnapshot, which compares it with the song count
+                    if (restored.getSize() != 20) {
+                        continue;
+                    }
+                    for (int step = 0; step < 50; step++) {
+                        int index = restored.next();
+                        assertTrue(index >= 0 && index < restored.getSize());
+                    }
+                } catch (IOException e) {
+                    // Expected for most positions
+                }
+            }
+        }
+    }
+
+    private static PlaybackQueue read(byte[] bytes) throws IOException {
+        return PlaybackQueue.read(new DataInputStream(new ByteArrayInputStream(bytes)));
+    }
+
+    private static int[] order(PlaybackQueue queue) {
+        int[] order = new int[30];
+        int[] count = new int[1];
+        queue.forEachInOrder(index -> order[count[0]++] = index);
+        return order;
+    }
+
+    static byte[] bytes(PlaybackQueue queue) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        queue.write(new DataOutputStream(bytes));
+        return bytes.toByteArray();
+    }
+}
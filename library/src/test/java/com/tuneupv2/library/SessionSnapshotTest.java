@@ -0,0 +1,96 @@
+package com.tuneupv2.library;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SessionSnapshotTest {
+    @TempDir
+    Path folder;
+
+    @Test
+    void unshuffledSessionIsSavedAndRestored() throws Exception {
+        List<Song> songs = songs(6);
+        PlaybackQueue queue = new PlaybackQueue();
+        queue.setSize(songs.size());
+        queue.next();
+        queue.select(4);
+        Path file = folder.resolve("session.snapshot");
+        new SessionSnapshot(folder.toFile(), songs, queue, 12.5, 0.8, true).save(file);
+
+        SessionSnapshot loaded = SessionSnapshot.load(file);
+        assertEquals(folder.toFile(), loaded.getRoot());
+        assertEquals(12.5, loaded.getPosition());
+        assertEquals(0.8, loaded.getVolume());
+        assertTrue(loaded.isMuted());
+        assertEquals(songs.size(), loaded.getSongs().size());
+        for (int i = 0; i < songs.size(); i++) {
+            Song song = songs.get(i);
+            Song restored = loaded.getSongs().get(i);
+            assertEquals(song.getId(), restored.getId());
+            assertEquals(song.getSongName(), restored.getSongName());
+            assertEquals(song.getArtistName(), restored.getArtistName());
+            assertEquals(song.getAlbum(), restored.getAlbum());
+            assertEquals(song.getDuration(), restored.getDuration());
+            assertEquals(song.getUrl(), restored.getUrl());
+        }
+        PlaybackQueue restoredQueue = loaded.getQueue();
+        assertFalse(restoredQueue.isShuffled());
+        assertEquals(4, restoredQueue.getCurrent());
+        assertEquals(5, restoredQueue.next());
+    }
+
+    @Test
+    void shuffledSessionKeepsItsQueue() throws Exception {
+        List<Song> songs = songs(40);
+        PlaybackQueue queue = new PlaybackQueue(new Random(9));
+        queue.setSize(songs.size());
+        queue.shuffle();
+        for (int i = 0; i < 10; i++) {
+            queue.next();
+        }
+        Path file = folder.resolve("session.snapshot");
+        new SessionSnapshot(null, songs, queue, 0, 1, false).save(file);
+
+        SessionSnapshot loaded = SessionSnapshot.load(file);
+        assertNull(loaded.getRoot());
+        assertTrue(loaded.getQueue().isShuffled());
+        assertEquals(queue.getCurrent(), loaded.getQueue().getCurrent());
+        assertEquals(queue.previous(), loaded.getQueue().previous());
+    }
+
+    @Test
+    void missingSnapshotLoadsAsNull() throws Exception {
+        assertNull(SessionSnapshot.load(folder.resolve("none.snapshot")));
+    }
+
+    @Test
+    void snapshotWithAnotherSongCountFails() throws Exception {
+        PlaybackQueue queue = new PlaybackQueue();
+        queue.setSize(3);
+        Path file = folder.resolve("session.snapshot");
+        new SessionSnapshot(null, songs(5), queue, 0, 1, false).save(file);
+        assertThrows(IOException.class, () -> SessionSnapshot.load(file));
+    }
+
+    private List<Song> songs(int count) {
+        List<Song> songs = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String url = new File(folder.toFile(), i + ".mp3").toURI().toString();
+            songs.add(new Song("id" + i, "Artist " + i % 3, "Song " + i, 180 + i, "Album " + i % 2, url, 0));
+        }
+        return songs;
+    }
+}
@@ -0,0 +1,68 @@
+package com.tuneupv2.library;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SongTest {
+    private static final int SONGS = 100_000;
+    // A song with its id, title, url and a share of the pooled names takes about 250 bytes; unshared
+    // names or a property per field would go well past this
+    private static final long MAX_BYTES_PER_SONG = 320;
+
+    @Test
+    void artistAndAlbumNamesAreShared() {
+        Song first = new Song("1", new String("Artist"), "One", 100, new String("Album"), "file:/1.mp3", 0);
+        Song second = new Song("2", new String("Artist"), "Two", 100, new String("Album"), "file:/2.mp3", 0);
+        assertSame(first.getArtistName(), second.getArtistName());
+        assertSame(first.getAlbum(), second.getAlbum());
+        second.setAlbum(new String("Album"));
+        assertSame(first.getAlbum(), second.getAlbum());
+    }
+
+    @Test
+    void namesOfRemovedSongsAreReleased() throws InterruptedException {
+        List<Song> songs = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            songs.add(new Song(String.valueOf(i), "Released artist " + i % 10, "Title", 100, "Released album " + i % 2, "file:/" + i, 0));
+            SortKeys.prepare(songs.get(i));
+        }
+        WeakReference<String> artist = new WeakReference<>(songs.get(0).getArtistName());
+        WeakReference<String> album = new WeakReference<>(songs.get(0).getAlbum());
+        songs = null;
+        for (int i = 0; i < 20 && (artist.get() != null || album.get() != null); i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(artist.get());
+        assertNull(album.get());
+    }
+
+    @Test
+    void songsStayWithinTheirFootprint() {
+        long before = usedHeap();
+        List<Song> songs = new ArrayList<>(SONGS);
+        for (int i = 0; i < SONGS; i++) {
+            songs.add(new Song(String.valueOf(i), "Artist " + i / 100, "Song title " + i, 180, "Album " + i / 20,
+                    "file:/music/artist" + i / 100 + "/track" + i + ".mp3", i));
+        }
+        long perSong = (usedHeap() - before) / SONGS;
+        assertTrue(perSong <= MAX_BYTES_PER_SONG, perSong + " bytes per song");
+        assertEquals(SONGS, songs.size()); // Keeps the songs reachable until measured
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
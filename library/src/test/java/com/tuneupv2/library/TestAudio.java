@@ -0,0 +1,116 @@
+package com.tuneupv2.library;
+
+import javax.sound.sampled.AudioFileFormat;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleUnaryOperator;
+
+// Small audio files for the tests: tagged MP3s of silent MPEG frames, and PCM files Java Sound can decode
+final class TestAudio {
+    // MPEG-1 Layer III, 128 kbit/s, 44.1 kHz, no padding: 417 bytes per frame
+    private static final byte[] FRAME_HEADER = {(byte) 0xFF, (byte) 0xFB, (byte) 0x90, 0x00};
+    private static final int FRAME_LENGTH = 417;
+
+    private TestAudio() {
+    }
+
+    static Path mp3(Path file, String title, String artist, String album, int frames) throws IOException {
+        Files.createDirectories(file.getParent());
+        try (OutputStream out = Files.newOutputStream(file)) {
+            out.write(tag(title, artist, album));
+            byte[] frame = new byte[FRAME_LENGTH];
+            System.arraycopy(FRAME_HEADER, 0, frame, 0, FRAME_HEADER.length);
+            for (int f = 0; f < frames; f++) {
+                out.write(frame);
+            }
+        }
+        return file;
+    }
+
+    // Writes the signal, a function of the time in seconds returning -1..1, to every channel. The format
+    // decides the sample size, signedness and byte order, the type whether it becomes a WAV or AIFF file.
+    static Path pcm(Path file, AudioFileFormat.Type type, AudioFormat format, double seconds,
+                    DoubleUnaryOperator signal) throws IOException {
+        Files.createDirectories(file.getParent());
+        int bytesPerSample = format.getSampleSizeInBits() / 8;
+        int frames = (int) Math.round(format.getSampleRate() * seconds);
+        boolean unsigned = format.getEncoding().equals(AudioFormat.Encoding.PCM_UNSIGNED);
+        long max = (1L << (format.getSampleSizeInBits() - 1)) - 1;
+        byte[] bytes = new byte[frames * format.getFrameSize()];
+        int offset = 0;
+        for (int f = 0; f < frames; f++) {
+            long value = Math.round(signal.applyAsDouble(f / format.getSampleRate()) * max) + (unsigned ? max + 1 : 0);
+            for (int c = 0; c < format.getChannels(); c++) {
+                for (int b = 0; b < bytesPerSample; b++) {
+                    int shift = 8 * (format.isBigEndian() ? bytesPerSample - 1 - b : b);
+                    bytes[offset++] = (byte) (value >> shift);
+                }
+            }
+        }
+        AudioSystem.write(new AudioInputStream(new ByteArrayInputStream(bytes), format, frames), type, file.toFile());
+        return file;
+    }
+
+    // Scans the folder and waits for the scan to finish, returning the songs in the order they arrived
+    static List<Song> scan(LibraryScanner scanner, Path folder) throws InterruptedException {
+        List<Song> songs = new ArrayList<>();
+        CountDownLatch finished = new CountDownLatch(1);
+        scanner.scan(folder.toFile(), new LibraryScanner.Listener() {
+            @Override
+            public void onBatch(LibraryScanner.Scan scan, List<Song> batch) {
+                songs.addAll(batch);
+            }
+
+            @Override
+            public void onProgress(LibraryScanner.Scan scan, int scanned, int total) {
+            }
+
+            @Override
+            public void onFinished(LibraryScanner.Scan scan, int scanned, boolean cancelled) {
+                finished.countDown();
+            }
+        });
+        if (!finished.await(30, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("Scan of " + folder + " did not finish");
+        }
+        return songs;
+    }
+
+    private static byte[] tag(String title, String artist, String album) throws IOException {
+        ByteArrayOutputStream frames = new ByteArrayOutputStream();
+        textFrame(frames, "TIT2", title);
+        textFrame(frames, "TPE1", artist);
+        textFrame(frames, "TALB", album);
+        int size = frames.size();
+        ByteArrayOutputStream tag = new ByteArrayOutputStream(size + 10);
+        tag.write(new byte[]{'I', 'D', '3', 3, 0, 0});
+        // Tag size is stored as a 28 bit synchsafe integer
+        tag.write((size >> 21) & 0x7F);
+        tag.write((size >> 14) & 0x7F);
+        tag.write((size >> 7) & 0x7F);
+        tag.write(size & 0x7F);
+        frames.writeTo(tag);
+        return tag.toByteArray();
+    }
+
+    private static void textFrame(OutputStream out, String id, String value) throws IOException {
+        byte[] text = value.getBytes(StandardCharsets.ISO_8859_1);
+        out.write(id.getBytes(StandardCharsets.ISO_8859_1));
+        int length = text.length + 1;
+        out.write(new byte[]{(byte) (length >>> 24), (byte) (length >>> 16), (byte) (length >>> 8), (byte) length, 0, 0});
+        out.write(0); // ISO-8859-1
+        out.write(text);
+    }
+}